@@ -26,6 +26,7 @@ package de.jvstvshd.velocitypunishment.api;
 
 import com.velocitypowered.api.proxy.ProxyServer;
 import de.jvstvshd.velocitypunishment.api.message.MessageProvider;
+import de.jvstvshd.velocitypunishment.api.metrics.PunishmentMetrics;
 import de.jvstvshd.velocitypunishment.api.punishment.PunishmentManager;
 import de.jvstvshd.velocitypunishment.api.punishment.util.PlayerResolver;
 
@@ -54,4 +55,9 @@ public interface VelocityPunishment {
     MessageProvider getMessageProvider();
 
     void setMessageProvider(MessageProvider messageProvider);
+
+    /**
+     * @return the metrics recorded by this plugin
+     */
+    PunishmentMetrics getMetrics();
 }
@@ -0,0 +1,173 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.api.event;
+
+import com.velocitypowered.api.event.ResultedEvent;
+import de.jvstvshd.velocitypunishment.api.punishment.Punishment;
+import de.jvstvshd.velocitypunishment.api.punishment.PunishmentDuration;
+import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Fired before a ban or mute is stored by {@link Punishment#punish()}. Listeners may deny the punishment or change its
+ * duration and reason by {@link #setResult(PunishmentResult) setting the result}; a denied punishment completes its
+ * future exceptionally with a {@link PunishmentVetoedException}.
+ * <p>
+ * The punishment only waits for the listeners for a limited time, configured by {@code prePunishmentTimeoutMillis}.
+ * If they have not finished by then, the punishment is stored unchanged and later changes of the result are ignored.
+ * Listeners which need to do I/O should return an {@link com.velocitypowered.api.event.EventTask} and finish quickly.
+ */
+public final class PrePunishmentEvent implements ResultedEvent<PrePunishmentEvent.PunishmentResult> {
+
+    private final Punishment punishment;
+    private final UUID playerUuid;
+    private final PunishmentDuration duration;
+    private final Component reason;
+    private volatile PunishmentResult result = PunishmentResult.allowed();
+
+    public PrePunishmentEvent(Punishment punishment, UUID playerUuid, PunishmentDuration duration, Component reason) {
+        this.punishment = punishment;
+        this.playerUuid = playerUuid;
+        this.duration = duration;
+        this.reason = reason;
+    }
+
+    /**
+     * @return the punishment which is about to be stored
+     */
+    public Punishment getPunishment() {
+        return punishment;
+    }
+
+    /**
+     * @return the uuid of the player who is about to be punished
+     */
+    public UUID getPlayerUuid() {
+        return playerUuid;
+    }
+
+    public PunishmentDuration getDuration() {
+        return duration;
+    }
+
+    public Component getReason() {
+        return reason;
+    }
+
+    @Override
+    public PunishmentResult getResult() {
+        return result;
+    }
+
+    @Override
+    public void setResult(PunishmentResult result) {
+        this.result = Objects.requireNonNull(result, "result");
+    }
+
+    @Override
+    public String toString() {
+        return "PrePunishmentEvent{" +
+                "punishment=" + punishment +
+                ", playerUuid=" + playerUuid +
+                ", result=" + result +
+                '}';
+    }
+
+    /**
+     * The result of a {@link PrePunishmentEvent}: whether the punishment may be stored and, optionally, the duration
+     * and reason it should be stored with instead.
+     */
+    public static final class PunishmentResult implements ResultedEvent.Result {
+
+        private static final PunishmentResult ALLOWED = new PunishmentResult(true, null, null);
+        private static final PunishmentResult DENIED = new PunishmentResult(false, null, null);
+
+        private final boolean allowed;
+        private final PunishmentDuration duration;
+        private final Component reason;
+
+        private PunishmentResult(boolean allowed, @Nullable PunishmentDuration duration, @Nullable Component reason) {
+            this.allowed = allowed;
+            this.duration = duration;
+            this.reason = reason;
+        }
+
+        /**
+         * @return a result allowing the punishment unchanged
+         */
+        public static PunishmentResult allowed() {
+            return ALLOWED;
+        }
+
+        /**
+         * @return a result preventing the punishment
+         */
+        public static PunishmentResult denied() {
+            return DENIED;
+        }
+
+        /**
+         * Allows the punishment with a different duration or reason, e.g. to escalate the duration for repeat
+         * offenders. A relative duration starts when the punishment is stored.
+         *
+         * @param duration the new duration or null, to keep the duration
+         * @param reason   the new reason or null, to keep the reason
+         * @return a result allowing the changed punishment
+         */
+        public static PunishmentResult modified(@Nullable PunishmentDuration duration, @Nullable Component reason) {
+            return new PunishmentResult(true, duration, reason);
+        }
+
+        @Override
+        public boolean isAllowed() {
+            return allowed;
+        }
+
+        public boolean isModified() {
+            return duration != null || reason != null;
+        }
+
+        public Optional<PunishmentDuration> getDuration() {
+            return Optional.ofNullable(duration);
+        }
+
+        public Optional<Component> getReason() {
+            return Optional.ofNullable(reason);
+        }
+
+        @Override
+        public String toString() {
+            return "PunishmentResult{" +
+                    "allowed=" + allowed +
+                    ", duration=" + duration +
+                    ", reason=" + reason +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.api.event;
+
+import de.jvstvshd.velocitypunishment.api.punishment.Punishment;
+import de.jvstvshd.velocitypunishment.api.punishment.PunishmentDuration;
+import net.kyori.adventure.text.Component;
+
+import java.util.UUID;
+
+/**
+ * Fired after the duration and reason of a punishment have been changed by
+ * {@link Punishment#change(PunishmentDuration, Component)}. {@link #getPunishment()} returns the changed punishment,
+ * which has the same id as the {@link #getPrevious() previous} one.
+ */
+public class PunishmentChangedEvent extends PunishmentEvent {
+
+    private final Punishment previous;
+
+    public PunishmentChangedEvent(Punishment previous, Punishment punishment, UUID playerUuid) {
+        super(punishment, playerUuid);
+        this.previous = previous;
+    }
+
+    /**
+     * @return the punishment before it was changed
+     */
+    public Punishment getPrevious() {
+        return previous;
+    }
+
+    @Override
+    public String toString() {
+        return "PunishmentChangedEvent{" +
+                "previous=" + previous +
+                ", punishment=" + getPunishment() +
+                ", playerUuid=" + getPlayerUuid() +
+                '}';
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.api.event;
+
+import de.jvstvshd.velocitypunishment.api.punishment.Punishment;
+
+import java.util.UUID;
+
+/**
+ * Fired after a punishment has been removed by {@link Punishment#cancel()}.
+ */
+public class PunishmentRevokedEvent extends PunishmentEvent {
+
+    public PunishmentRevokedEvent(Punishment punishment, UUID playerUuid) {
+        super(punishment, playerUuid);
+    }
+
+    @Override
+    public String toString() {
+        return "PunishmentRevokedEvent{" +
+                "punishment=" + getPunishment() +
+                ", playerUuid=" + getPlayerUuid() +
+                '}';
+    }
+}
@@ -25,9 +25,12 @@
 package de.jvstvshd.velocitypunishment.api.message;
 
 import com.velocitypowered.api.command.CommandSource;
+import com.velocitypowered.api.proxy.Player;
 import net.kyori.adventure.text.Component;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Locale;
+
 public interface MessageProvider {
 
     @NotNull
@@ -50,4 +53,19 @@ public interface MessageProvider {
 
     @NotNull
     Component provide(String key, CommandSource source, boolean withPrefix, Component... args);
+
+    /**
+     * Determines the locale in which messages for the given source are rendered. By default, this is the effective locale
+     * of a player or {@link Locale#getDefault()} for all other sources.
+     *
+     * @param source the command source messages should be rendered for
+     * @return the locale used for messages sent to this source
+     */
+    @NotNull
+    default Locale locale(CommandSource source) {
+        if (source instanceof Player player && player.getEffectiveLocale() != null) {
+            return player.getEffectiveLocale();
+        }
+        return Locale.getDefault();
+    }
 }
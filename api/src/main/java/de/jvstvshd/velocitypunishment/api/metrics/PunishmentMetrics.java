@@ -0,0 +1,84 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.api.metrics;
+
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * A registry of named metrics describing the work done by the punishment system. Metrics are created on first access
+ * and live as long as the registry. Names are dot-separated and lower case, e.g. {@code listener.login} or
+ * {@code sql.punishment.insert}.
+ * <p>
+ * The default implementation records the following metrics:<br>
+ * - timers {@code listener.login} and {@code listener.chat}: time needed to check a login or a chat message<br>
+ * - timers {@code punishment.punish}, {@code punishment.cancel} and {@code punishment.change}<br>
+ * - timers {@code resolver.http.name} and {@code resolver.http.uuid}: requests to the Mojang API<br>
+ * - timers {@code sql.*}: execution time of every SQL statement<br>
+ * - counters {@code cache.*.hit} and {@code cache.*.miss}<br>
+ * - gauges {@code executor.*} and {@code pool.*}: executor and connection pool usage
+ */
+public interface PunishmentMetrics {
+
+    /**
+     * Returns the timer with the given name, creating it if it does not exist yet.
+     *
+     * @param name the name of the timer
+     * @return the timer
+     */
+    Timer timer(String name);
+
+    /**
+     * Returns the counter with the given name, creating it if it does not exist yet.
+     *
+     * @param name the name of the counter
+     * @return the counter
+     */
+    Counter counter(String name);
+
+    /**
+     * Registers a gauge whose value is obtained from {@code supplier} every time it is read. A gauge registered
+     * under an existing name replaces the old one.
+     *
+     * @param name     the name of the gauge
+     * @param supplier the supplier of the current value
+     */
+    void gauge(String name, LongSupplier supplier);
+
+    /**
+     * @return an unmodifiable, sorted view of all timers
+     */
+    Map<String, Timer> getTimers();
+
+    /**
+     * @return an unmodifiable, sorted view of all counters
+     */
+    Map<String, Counter> getCounters();
+
+    /**
+     * @return an unmodifiable, sorted view of all gauges
+     */
+    Map<String, LongSupplier> getGauges();
+}
@@ -0,0 +1,92 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.api.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records durations in a histogram so that percentiles can be read cheaply. Implementations are thread-safe and
+ * recording does not block.
+ */
+public interface Timer {
+
+    /**
+     * Records a single duration.
+     *
+     * @param duration the duration
+     * @param unit     the unit of {@code duration}
+     */
+    void record(long duration, TimeUnit unit);
+
+    /**
+     * Starts timing an operation. The duration is recorded once the returned sample is closed, which makes it usable
+     * in a try-with-resources statement.
+     *
+     * @return the running sample
+     */
+    default Sample start() {
+        long start = System.nanoTime();
+        return () -> record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the number of recorded durations
+     */
+    long count();
+
+    /**
+     * @param unit the unit of the result
+     * @return the sum of all recorded durations
+     */
+    long totalTime(TimeUnit unit);
+
+    /**
+     * @param unit the unit of the result
+     * @return the longest recorded duration
+     */
+    long max(TimeUnit unit);
+
+    /**
+     * Returns the value at the given percentile. The value is exact up to the precision of the underlying
+     * histogram, which is at least 97%.
+     *
+     * @param percentile the percentile, between 0 and 1 (e.g. {@code 0.99})
+     * @param unit       the unit of the result
+     * @return the value at the percentile or 0, if nothing has been recorded yet
+     */
+    long percentile(double percentile, TimeUnit unit);
+
+    /**
+     * A running measurement started by {@link #start()}.
+     */
+    interface Sample extends AutoCloseable {
+
+        /**
+         * Stops the measurement and records its duration.
+         */
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.api.punishment;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.UUID;
+
+/**
+ * Marks the position after the last punishment of a {@link PunishmentPage}. Punishments are ordered by their
+ * expiration and id, latest expiring first, so the next page starts right after the punishment the cursor was created from.
+ * Cursors stay valid when punishments are added or removed in the meantime.
+ *
+ * @param expiration   the expiration of the last punishment of the page
+ * @param punishmentId the id of the last punishment of the page
+ */
+public record PunishmentCursor(@NotNull LocalDateTime expiration, @NotNull UUID punishmentId) {
+
+    /**
+     * @return a string representation without whitespace which can be turned back into a cursor by {@link #parse(String)}
+     */
+    public String serialize() {
+        return expiration + "/" + punishmentId;
+    }
+
+    /**
+     * Parses a cursor created by {@link #serialize()}.
+     *
+     * @param source the serialized cursor
+     * @return the cursor
+     * @throws IllegalArgumentException if {@code source} is not a valid cursor
+     */
+    public static PunishmentCursor parse(String source) {
+        int separator = source.indexOf('/');
+        if (separator < 0) {
+            throw new IllegalArgumentException("invalid cursor: " + source);
+        }
+        try {
+            return new PunishmentCursor(LocalDateTime.parse(source.substring(0, separator)), UUID.fromString(source.substring(separator + 1)));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("invalid cursor: " + source, e);
+        }
+    }
+}
@@ -28,39 +28,55 @@ import com.google.common.annotations.Beta;
 import org.jetbrains.annotations.NotNull;
 
 import java.sql.Timestamp;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.TimeUnit;
 
 /**
- * Class holding the duration and expiration date of a punishment.
+ * Immutable class holding the duration and expiration date of a punishment.
+ * <p>
+ * A duration is either <i>relative</i>, meaning it expires a fixed amount of time after the current time (e.g. a
+ * parsed duration before the punishment was imposed), or <i>absolute</i>, meaning it expires at a fixed point in time.
+ * Internally, both are stored as primitive milliseconds, so comparisons and expiration checks are plain arithmetic on
+ * the epoch milliseconds of the {@link Clock} of this duration.
  *
  * @see #parse(String)
  */
-public class PunishmentDuration implements Comparable<PunishmentDuration> {
-    private final Duration duration;
+public final class PunishmentDuration implements Comparable<PunishmentDuration> {
+
+    public static Timestamp MAX = Timestamp.valueOf(LocalDateTime.of(9999, 12, 31, 23, 59, 59));
+    private static final long MAX_MILLIS = MAX.getTime();
+    private static final long RELATIVE = Long.MIN_VALUE;
+
+    private final long durationMillis;
+    /**
+     * The epoch millis of the expiration if this duration is absolute, otherwise {@link #RELATIVE}.
+     */
+    private final long expirationMillis;
     private final boolean permanent;
-    private boolean relative = true;
-    private LocalDateTime fixedExpiration = null;
+    private final Clock clock;
 
-    private PunishmentDuration(Duration duration, boolean permanent) {
-        this.duration = duration;
+    private PunishmentDuration(long durationMillis, long expirationMillis, boolean permanent, Clock clock) {
+        this.durationMillis = durationMillis;
+        this.expirationMillis = expirationMillis;
         this.permanent = permanent;
+        this.clock = clock;
     }
 
     /**
-     * Makes this duration absolute, meaning the duration will not be added anymore. Instead, a fixed expiration date will be set.
+     * Creates an absolute duration with the same expiration as this one at the moment of the call, meaning the
+     * duration will not be added anymore. Absolute durations are returned as they are.
+     *
+     * @return an absolute duration
      */
-    public void absolute() {
-        synchronized (this) {
-            fixedExpiration = expiration();
-            relative = false;
+    public PunishmentDuration absolute() {
+        if (isAbsolute()) {
+            return this;
         }
+        return new PunishmentDuration(durationMillis, clock.millis() + durationMillis, permanent, clock);
     }
 
     /**
@@ -70,11 +86,21 @@ public class PunishmentDuration implements Comparable<PunishmentDuration> {
      * @return the converted duration
      */
     public static PunishmentDuration fromTimestamp(Timestamp timestamp) {
-        if (timestamp.equals(MAX))
-            return permanent();
-        var duration = new PunishmentDuration(Duration.between(Instant.now(), timestamp.toInstant()), false);
-        duration.absolute();
-        return duration;
+        return fromTimestamp(timestamp, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Converts the given {@link Timestamp} into an absolute {@link PunishmentDuration} using {@code clock} as time source.
+     *
+     * @param timestamp the timestamp which should be converted
+     * @param clock     the clock deciding whether the duration is expired
+     * @return the converted duration
+     */
+    public static PunishmentDuration fromTimestamp(Timestamp timestamp, Clock clock) {
+        long expiration = timestamp.getTime();
+        if (expiration == MAX_MILLIS)
+            return permanent(clock);
+        return new PunishmentDuration(expiration - clock.millis(), expiration, false, clock);
     }
 
     /**
@@ -94,28 +120,58 @@ public class PunishmentDuration implements Comparable<PunishmentDuration> {
      * @return a permanent duration
      */
     public static PunishmentDuration permanent() {
-        var duration = new PunishmentDuration(Duration.between(LocalDateTime.now(), MAX.toLocalDateTime()), true);
-        duration.absolute();
-        return duration;
+        return permanent(Clock.systemDefaultZone());
+    }
+
+    private static PunishmentDuration permanent(Clock clock) {
+        return new PunishmentDuration(MAX_MILLIS - clock.millis(), MAX_MILLIS, true, clock);
     }
 
     /**
      * @return a new punishment duration whose duration is 0 seconds.
      */
     public static PunishmentDuration zero() {
-        return new PunishmentDuration(Duration.ofMillis(0), false);
+        return ofMillis(0);
     }
 
     /**
-     * If this duration is relative ({@link #absolute()} was not called before), the created duration is now plus {@link #duration()}, otherwise the fixed expiration is returned.
+     * Creates a relative duration.
+     *
+     * @param millis the length of the duration in milliseconds
+     * @return a relative duration of {@code millis} milliseconds
+     * @throws IllegalArgumentException if {@code millis} is negative
+     */
+    public static PunishmentDuration ofMillis(long millis) {
+        if (millis < 0)
+            throw new IllegalArgumentException("Illegal duration: " + millis + "ms");
+        return new PunishmentDuration(millis, RELATIVE, false, Clock.systemDefaultZone());
+    }
+
+    /**
+     * @param clock the clock to use as time source
+     * @return a duration equal to this one, but using {@code clock} as time source
+     */
+    public PunishmentDuration withClock(Clock clock) {
+        return new PunishmentDuration(durationMillis, expirationMillis, permanent, Objects.requireNonNull(clock, "clock"));
+    }
+
+    /**
+     * If this duration is relative, the expiration is now plus {@link #duration()}, otherwise the fixed expiration
+     * is returned.
+     *
+     * @return the expiration date of this punishment in epoch milliseconds
+     */
+    public long expirationMillis() {
+        return isAbsolute() ? expirationMillis : clock.millis() + durationMillis;
+    }
+
+    /**
+     * If this duration is relative, the expiration is now plus {@link #duration()}, otherwise the fixed expiration is returned.
      *
      * @return the expiration date of this punishment
      */
     public LocalDateTime expiration() {
-        if (relative) {
-            return LocalDateTime.now().plus(duration);
-        }
-        return fixedExpiration;
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(expirationMillis()), clock.getZone());
     }
 
     /**
@@ -124,25 +180,35 @@ public class PunishmentDuration implements Comparable<PunishmentDuration> {
     public Timestamp timestampExpiration() {
         if (permanent)
             return MAX;
-        return Timestamp.valueOf(expiration());
+        return new Timestamp(expirationMillis());
     }
 
-    public static Timestamp MAX = Timestamp.valueOf(LocalDateTime.of(9999, 12, 31, 23, 59, 59));
+    /**
+     * @return the milliseconds until this duration expires; negative if it already expired
+     */
+    public long remainingMillis() {
+        return isAbsolute() ? expirationMillis - clock.millis() : durationMillis;
+    }
 
-    @Override
-    public String toString() {
-        return "PunishmentDuration{" +
-                "duration=" + duration +
-                ", permanent=" + permanent +
-                ", expiration=" + expiration() +
-                '}';
+    /**
+     * @return whether the expiration lies in the past or is now, which for relative durations is only the case if they are empty
+     */
+    public boolean isExpired() {
+        return remainingMillis() <= 0;
+    }
+
+    /**
+     * @return whether the expiration of this duration is fixed, see {@link #absolute()}
+     */
+    public boolean isAbsolute() {
+        return expirationMillis != RELATIVE;
     }
 
     /**
-     * @return the duration set in the constructor
+     * @return the duration set when this duration was created
      */
     public Duration duration() {
-        return duration;
+        return Duration.ofMillis(durationMillis);
     }
 
     /**
@@ -152,27 +218,38 @@ public class PunishmentDuration implements Comparable<PunishmentDuration> {
         return permanent;
     }
 
+    @Override
+    public String toString() {
+        return "PunishmentDuration{" +
+                "duration=" + duration() +
+                ", permanent=" + permanent +
+                ", expiration=" + expiration() +
+                '}';
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == this) return true;
         if (obj == null || obj.getClass() != this.getClass()) return false;
         var that = (PunishmentDuration) obj;
-        return Objects.equals(this.duration, that.duration) &&
+        return this.durationMillis == that.durationMillis && this.expirationMillis == that.expirationMillis &&
                 this.permanent == that.permanent;
     }
 
     @Override
     public int hashCode() {
-        int result = duration.hashCode();
+        int result = Long.hashCode(durationMillis);
+        result = 31 * result + Long.hashCode(expirationMillis);
         result = 31 * result + (permanent ? 1 : 0);
-        result = 31 * result + (relative ? 1 : 0);
-        result = 31 * result + fixedExpiration.hashCode();
         return result;
     }
 
+    /**
+     * Compares the expirations of both durations.
+     */
     @Override
     public int compareTo(@NotNull PunishmentDuration o) {
-        return expiration().compareTo(o.expiration());
+        return Long.compare(expirationMillis(), o.expirationMillis());
     }
 
     /**
@@ -186,7 +263,7 @@ public class PunishmentDuration implements Comparable<PunishmentDuration> {
      * @return the remaining duration represented as string
      */
     public String getRemainingDuration() {
-        return representDuration(Duration.between(LocalDateTime.now(), expiration()));
+        return representDuration(Duration.ofMillis(remainingMillis()));
     }
 
     /**
@@ -196,7 +273,7 @@ public class PunishmentDuration implements Comparable<PunishmentDuration> {
      */
     @Beta
     public String getInitialDuration() {
-        return representDuration(duration);
+        return representDuration(duration());
     }
 
     private String representDuration(Duration duration) {
@@ -226,17 +303,29 @@ public class PunishmentDuration implements Comparable<PunishmentDuration> {
         return s;
     }
 
+    /**
+     * Parses durations like {@code 1d12h30m}: a sequence of numbers, each followed by a unit. Units are
+     * case-insensitive and may each be used once, in any order:
+     * <ul>
+     *     <li>{@code s} - seconds</li>
+     *     <li>{@code m} - minutes</li>
+     *     <li>{@code h} - hours</li>
+     *     <li>{@code d} - days</li>
+     *     <li>{@code w} - weeks (7 days)</li>
+     *     <li>{@code mo} - months (30 days)</li>
+     *     <li>{@code y} - years (365 days)</li>
+     * </ul>
+     * The source is read in a single pass and accumulated into a primitive long; nothing is allocated unless the
+     * source is invalid.
+     */
     public static class Parser {
-        private final static Map<Character, TimeUnit> characterMapping = new HashMap<>() {
-            {
-                put('s', TimeUnit.SECONDS);
-                put('m', TimeUnit.MINUTES);
-                put('h', TimeUnit.HOURS);
-                put('d', TimeUnit.DAYS);
-            }
-        };
+
+        private static final long SECOND = 1000L;
+        private static final long MINUTE = 60 * SECOND;
+        private static final long HOUR = 60 * MINUTE;
+        private static final long DAY = 24 * HOUR;
+
         private final String source;
-        private final Map<TimeUnit, Long> rawDuration;
         private final boolean permanent;
 
         public Parser(String source) {
@@ -244,54 +333,101 @@ public class PunishmentDuration implements Comparable<PunishmentDuration> {
         }
 
         public Parser(String source, boolean permanent) {
-            this.source = source;
-            this.rawDuration = new HashMap<>();
+            this.source = Objects.requireNonNull(source, "source");
             this.permanent = permanent;
         }
 
-        public void convert() {
-            String[] numbers = source.split("[sSmMhHdDyY]");
-            Map<TimeUnit, Long> converted = new HashMap<>();
+        /**
+         * Converts the source into milliseconds.
+         *
+         * @return the length of the duration in milliseconds
+         * @throws IllegalArgumentException if the source is empty, contains anything but numbers and units, a number
+         *                                  without unit, a unit twice or is too long to be represented
+         */
+        public long convert() {
+            final int length = source.length();
+            if (length == 0)
+                throw new IllegalArgumentException("Duration is empty.");
+            long total = 0;
+            int usedUnits = 0;
             int index = 0;
-            for (String number : numbers) {
-                index += number.length();
-                final long numericValue = Long.parseLong(number);
-                if (numericValue < 0)
-                    throw new IllegalArgumentException("Illegal numeric value: " + numericValue);
-                final char unit;
-                try {
-                    unit = Character.toLowerCase(source.charAt(index));
-                } catch (IndexOutOfBoundsException e) {
-                    throw new IllegalArgumentException("Number is not followed by unit marking character.");
+            while (index < length) {
+                final int start = index;
+                long value = 0;
+                char c;
+                while (index < length && (c = source.charAt(index)) >= '0' && c <= '9') {
+                    if (value > (Long.MAX_VALUE - (c - '0')) / 10)
+                        throw tooLong();
+                    value = value * 10 + (c - '0');
+                    index++;
                 }
-                TimeUnit chronoUnit = characterMapping.get(unit);
-                if (chronoUnit == null)
-                    throw new IllegalArgumentException("Unknown time unit for character '" + unit + "'");
-                converted.put(chronoUnit, numericValue);
-                index++;
+                if (index == start)
+                    throw new IllegalArgumentException("Expected a number at position " + (start + 1) + " of '" + source + "'.");
+                if (index == length)
+                    throw new IllegalArgumentException("Number " + source.substring(start) + " is not followed by a unit (s, m, h, d, w, mo, y).");
+                final int unitStart = index;
+                final long unitMillis;
+                final int unitBit;
+                switch (Character.toLowerCase(source.charAt(index++))) {
+                    case 's' -> {
+                        unitMillis = SECOND;
+                        unitBit = 1;
+                    }
+                    case 'm' -> {
+                        if (index < length && Character.toLowerCase(source.charAt(index)) == 'o') {
+                            index++;
+                            unitMillis = 30 * DAY;
+                            unitBit = 1 << 5;
+                        } else {
+                            unitMillis = MINUTE;
+                            unitBit = 1 << 1;
+                        }
+                    }
+                    case 'h' -> {
+                        unitMillis = HOUR;
+                        unitBit = 1 << 2;
+                    }
+                    case 'd' -> {
+                        unitMillis = DAY;
+                        unitBit = 1 << 3;
+                    }
+                    case 'w' -> {
+                        unitMillis = 7 * DAY;
+                        unitBit = 1 << 4;
+                    }
+                    case 'y' -> {
+                        unitMillis = 365 * DAY;
+                        unitBit = 1 << 6;
+                    }
+                    default -> throw new IllegalArgumentException("Unknown time unit '" + source.charAt(unitStart) + "' at position "
+                            + (unitStart + 1) + " of '" + source + "', expected one of s, m, h, d, w, mo, y.");
+                }
+                if ((usedUnits & unitBit) != 0)
+                    throw new IllegalArgumentException("Time unit '" + source.substring(unitStart, index) + "' is used more than once in '" + source + "'.");
+                usedUnits |= unitBit;
+                if (value > (Long.MAX_VALUE - total) / unitMillis)
+                    throw tooLong();
+                total += value * unitMillis;
             }
-            rawDuration.clear();
-            rawDuration.putAll(converted);
+            return total;
         }
 
+        /**
+         * @return the parsed duration, relative unless this parser was created for a permanent duration
+         * @throws IllegalArgumentException if the source is invalid (see {@link #convert()}) or the duration would
+         *                                  expire after {@link #MAX}
+         */
         public PunishmentDuration parse() {
-            convert();
-            if (rawDuration.isEmpty()) {
-                throw new IllegalArgumentException("Converted map is empty.");
-            }
-            return new PunishmentDuration(Duration.ofMillis(durationToMillis()), permanent);
-        }
-
-        private long convertToMillis(TimeUnit unit, long value) {
-            return unit.toMillis(value);
+            final long millis = convert();
+            if (permanent)
+                return PunishmentDuration.permanent();
+            if (millis >= MAX_MILLIS - System.currentTimeMillis())
+                throw tooLong();
+            return PunishmentDuration.ofMillis(millis);
         }
 
-        private long durationToMillis() {
-            long total = 0;
-            for (Map.Entry<TimeUnit, Long> entry : rawDuration.entrySet()) {
-                total += convertToMillis(entry.getKey(), entry.getValue());
-            }
-            return total;
+        private IllegalArgumentException tooLong() {
+            return new IllegalArgumentException("Duration '" + source + "' is too long, punishments must expire before the year 10000.");
         }
     }
 }
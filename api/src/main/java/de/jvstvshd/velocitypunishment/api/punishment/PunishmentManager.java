@@ -28,12 +28,14 @@ import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.ProxyServer;
 import de.jvstvshd.velocitypunishment.api.punishment.util.PlayerResolver;
 import net.kyori.adventure.text.Component;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
 /**
  * An interface for managing punishments.
@@ -99,6 +101,83 @@ public interface PunishmentManager {
      */
     <T extends Punishment> CompletableFuture<List<T>> getPunishments(UUID player, Executor service, PunishmentType... type);
 
+    /**
+     * Queries one page of the punishments of a player, newest (by expiration) first. Unlike
+     * {@link #getPunishments(UUID, Executor, PunishmentType...)}, at most {@code limit} punishments are loaded, which
+     * keeps the query cheap for players with a long history. By default this method throws an
+     * {@link UnsupportedOperationException}.
+     *
+     * @param player  the player whose punishments should be queried
+     * @param service an {@link Executor} which will be used to perform async operations
+     * @param after   the cursor of the page to query, as returned by {@link PunishmentPage#next()}, or null for the first page
+     * @param limit   the maximum number of punishments of the page
+     * @param types   the types of punishments to query; all types if none are given
+     * @param <T>     the type of punishment(s), matching them in <code>types</code>
+     * @return the page
+     * @throws UnsupportedOperationException if the method was not overwritten
+     */
+    default <T extends Punishment> CompletableFuture<PunishmentPage<T>> getPunishments(UUID player, Executor service, @Nullable PunishmentCursor after, int limit, PunishmentType... types) {
+        throw new UnsupportedOperationException("method was not implemented");
+    }
+
+    /**
+     * Streams all punishments of a player to {@code consumer}, newest (by expiration) first, without loading them
+     * into memory at once. The consumer is called on a thread of {@code service} while the underlying query is still
+     * running, so it should not block. By default this method throws an {@link UnsupportedOperationException}.
+     *
+     * @param player   the player whose punishments should be queried
+     * @param service  an {@link Executor} which will be used to perform async operations
+     * @param consumer receives every punishment
+     * @param types    the types of punishments to query; all types if none are given
+     * @return a {@link CompletableFuture} being completed with the number of punishments passed to {@code consumer}
+     * @throws UnsupportedOperationException if the method was not overwritten
+     */
+    default CompletableFuture<Integer> streamPunishments(UUID player, Executor service, Consumer<? super Punishment> consumer, PunishmentType... types) {
+        throw new UnsupportedOperationException("method was not implemented");
+    }
+
+    /**
+     * Counts the punishments of a player that have not expired yet without loading them. By default this method
+     * throws an {@link UnsupportedOperationException}.
+     *
+     * @param player  the player whose punishments should be counted
+     * @param service an {@link Executor} which will be used to perform async operations
+     * @param types   the types of punishments to count; all types if none are given
+     * @return a {@link CompletableFuture} being completed with the number of active punishments
+     * @throws UnsupportedOperationException if the method was not overwritten
+     */
+    default CompletableFuture<Integer> countActive(UUID player, Executor service, PunishmentType... types) {
+        throw new UnsupportedOperationException("method was not implemented");
+    }
+
+    /**
+     * Checks whether a player has at least one punishment that has not expired yet without loading it. By default
+     * this method throws an {@link UnsupportedOperationException}.
+     *
+     * @param player  the player whose punishments should be checked
+     * @param service an {@link Executor} which will be used to perform async operations
+     * @param types   the types of punishments to check; all types if none are given
+     * @return a {@link CompletableFuture} being completed with true if there is an active punishment of the given types
+     * @throws UnsupportedOperationException if the method was not overwritten
+     */
+    default CompletableFuture<Boolean> hasActive(UUID player, Executor service, PunishmentType... types) {
+        throw new UnsupportedOperationException("method was not implemented");
+    }
+
+    /**
+     * Searches the punishments of all players matching {@code query}. Only the filters set in the query are applied;
+     * use {@link PunishmentQuery#toBuilder()} together with {@link PunishmentPage#next()} to query further pages. By
+     * default this method throws an {@link UnsupportedOperationException}.
+     *
+     * @param query   the filters
+     * @param service an {@link Executor} which will be used to perform async operations
+     * @return a page with at most {@link PunishmentQuery#limit()} punishments
+     * @throws UnsupportedOperationException if the method was not overwritten
+     */
+    default CompletableFuture<PunishmentPage<Punishment>> search(PunishmentQuery query, Executor service) {
+        throw new UnsupportedOperationException("method was not implemented");
+    }
+
     /**
      * Queries the punishment stored with the given {@code punishmentId}
      *
@@ -115,7 +194,7 @@ public interface PunishmentManager {
     ProxyServer getServer();
 
     /**
-     * Checks whether the player specified via <code>playerUuid</code>. By default this method must not be overwritten and throws an {@link UnsupportedOperationException}
+     * Checks whether the player specified via <code>playerUuid</code> is banned. By default this method throws an {@link UnsupportedOperationException}
      *
      * @param playerUuid the uuid of the player
      * @param executor   an {@link Executor} used for async operations
@@ -125,4 +204,16 @@ public interface PunishmentManager {
     default CompletableFuture<Boolean> isBanned(UUID playerUuid, Executor executor) {
         throw new UnsupportedOperationException("method was not implemented");
     }
+
+    /**
+     * Checks whether the player specified via <code>playerUuid</code> is muted. By default this method throws an {@link UnsupportedOperationException}
+     *
+     * @param playerUuid the uuid of the player
+     * @param executor   an {@link Executor} used for async operations
+     * @return a {@link CompletableFuture}, being completed with true if this player is muted and false if not
+     * @throws UnsupportedOperationException if the method was not overwritten
+     */
+    default CompletableFuture<Boolean> isMuted(UUID playerUuid, Executor executor) {
+        throw new UnsupportedOperationException("method was not implemented");
+    }
 }
@@ -0,0 +1,297 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.api.punishment;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * An immutable set of filters for {@link PunishmentManager#search(PunishmentQuery, java.util.concurrent.Executor)}.
+ * All filters are optional and combined with AND; results are ordered by expiration and id, latest expiring first,
+ * just like {@link PunishmentPage}s of a single player. Create queries with {@link #builder()}:
+ * <pre>{@code
+ * PunishmentQuery.builder()
+ *         .types(StandardPunishmentType.BAN, StandardPunishmentType.PERMANENT_BAN)
+ *         .activeOnly()
+ *         .issuedAfter(LocalDateTime.now().minusHours(1))
+ *         .build();
+ * }</pre>
+ */
+public final class PunishmentQuery {
+
+    /**
+     * The number of punishments returned if no limit was set.
+     */
+    public static final int DEFAULT_LIMIT = 50;
+
+    private final Set<StandardPunishmentType> types;
+    private final UUID player;
+    private final LocalDateTime issuedAfter;
+    private final LocalDateTime issuedBefore;
+    private final LocalDateTime expiresAfter;
+    private final LocalDateTime expiresBefore;
+    private final boolean activeOnly;
+    private final String reason;
+    private final PunishmentCursor after;
+    private final int limit;
+
+    private PunishmentQuery(Builder builder) {
+        this.types = builder.types.isEmpty() ? Collections.unmodifiableSet(EnumSet.allOf(StandardPunishmentType.class))
+                : Collections.unmodifiableSet(EnumSet.copyOf(builder.types));
+        this.player = builder.player;
+        this.issuedAfter = builder.issuedAfter;
+        this.issuedBefore = builder.issuedBefore;
+        this.expiresAfter = builder.expiresAfter;
+        this.expiresBefore = builder.expiresBefore;
+        this.activeOnly = builder.activeOnly;
+        this.reason = builder.reason;
+        this.after = builder.after;
+        this.limit = builder.limit;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return a builder initialized with the filters of this query, e.g. to query the next page
+     */
+    public Builder toBuilder() {
+        var builder = new Builder();
+        builder.types.addAll(types);
+        builder.player = player;
+        builder.issuedAfter = issuedAfter;
+        builder.issuedBefore = issuedBefore;
+        builder.expiresAfter = expiresAfter;
+        builder.expiresBefore = expiresBefore;
+        builder.activeOnly = activeOnly;
+        builder.reason = reason;
+        builder.after = after;
+        builder.limit = limit;
+        return builder;
+    }
+
+    /**
+     * @return the queried types; all types if none were set
+     */
+    public @NotNull Set<StandardPunishmentType> types() {
+        return types;
+    }
+
+    public Optional<UUID> player() {
+        return Optional.ofNullable(player);
+    }
+
+    public Optional<LocalDateTime> issuedAfter() {
+        return Optional.ofNullable(issuedAfter);
+    }
+
+    public Optional<LocalDateTime> issuedBefore() {
+        return Optional.ofNullable(issuedBefore);
+    }
+
+    public Optional<LocalDateTime> expiresAfter() {
+        return Optional.ofNullable(expiresAfter);
+    }
+
+    public Optional<LocalDateTime> expiresBefore() {
+        return Optional.ofNullable(expiresBefore);
+    }
+
+    public boolean activeOnly() {
+        return activeOnly;
+    }
+
+    public Optional<String> reason() {
+        return Optional.ofNullable(reason);
+    }
+
+    public Optional<PunishmentCursor> after() {
+        return Optional.ofNullable(after);
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PunishmentQuery that)) return false;
+        return activeOnly == that.activeOnly && limit == that.limit && types.equals(that.types) && Objects.equals(player, that.player)
+                && Objects.equals(issuedAfter, that.issuedAfter) && Objects.equals(issuedBefore, that.issuedBefore)
+                && Objects.equals(expiresAfter, that.expiresAfter) && Objects.equals(expiresBefore, that.expiresBefore)
+                && Objects.equals(reason, that.reason) && Objects.equals(after, that.after);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(types, player, issuedAfter, issuedBefore, expiresAfter, expiresBefore, activeOnly, reason, after, limit);
+    }
+
+    @Override
+    public String toString() {
+        return "PunishmentQuery{" +
+                "types=" + types +
+                ", player=" + player +
+                ", issuedAfter=" + issuedAfter +
+                ", issuedBefore=" + issuedBefore +
+                ", expiresAfter=" + expiresAfter +
+                ", expiresBefore=" + expiresBefore +
+                ", activeOnly=" + activeOnly +
+                ", reason='" + reason + '\'' +
+                ", after=" + after +
+                ", limit=" + limit +
+                '}';
+    }
+
+    public static final class Builder {
+
+        private final Set<StandardPunishmentType> types = EnumSet.noneOf(StandardPunishmentType.class);
+        private UUID player;
+        private LocalDateTime issuedAfter;
+        private LocalDateTime issuedBefore;
+        private LocalDateTime expiresAfter;
+        private LocalDateTime expiresBefore;
+        private boolean activeOnly;
+        private String reason;
+        private PunishmentCursor after;
+        private int limit = DEFAULT_LIMIT;
+
+        private Builder() {
+        }
+
+        /**
+         * Restricts the query to the given types. Calling this method multiple times adds the types.
+         *
+         * @param types the types
+         * @return this builder
+         * @throws IllegalArgumentException if a type is no {@link StandardPunishmentType}
+         */
+        public Builder types(PunishmentType... types) {
+            for (PunishmentType type : types) {
+                if (!(type instanceof StandardPunishmentType standardType)) {
+                    throw new IllegalArgumentException("Invalid punishment type: " + type + ", class: " + type.getClass());
+                }
+                this.types.add(standardType);
+            }
+            return this;
+        }
+
+        public Builder player(@Nullable UUID player) {
+            this.player = player;
+            return this;
+        }
+
+        /**
+         * Only punishments issued at or after {@code time} are returned. Punishments issued before the issue date was
+         * stored have none and never match this filter.
+         *
+         * @param time the earliest issue date
+         * @return this builder
+         */
+        public Builder issuedAfter(@Nullable LocalDateTime time) {
+            this.issuedAfter = time;
+            return this;
+        }
+
+        /**
+         * Only punishments issued before {@code time} are returned. Like {@link #issuedAfter(LocalDateTime)}, this
+         * never matches punishments without an issue date.
+         *
+         * @param time the date all punishments must have been issued before
+         * @return this builder
+         */
+        public Builder issuedBefore(@Nullable LocalDateTime time) {
+            this.issuedBefore = time;
+            return this;
+        }
+
+        public Builder expiresAfter(@Nullable LocalDateTime time) {
+            this.expiresAfter = time;
+            return this;
+        }
+
+        public Builder expiresBefore(@Nullable LocalDateTime time) {
+            this.expiresBefore = time;
+            return this;
+        }
+
+        /**
+         * Only returns punishments that have not expired yet when the query is executed.
+         *
+         * @return this builder
+         */
+        public Builder activeOnly() {
+            return activeOnly(true);
+        }
+
+        public Builder activeOnly(boolean activeOnly) {
+            this.activeOnly = activeOnly;
+            return this;
+        }
+
+        /**
+         * Only returns punishments whose reason contains {@code reason}, compared with the collation of the database
+         * (case-insensitive on MariaDB by default).
+         *
+         * @param reason the text the reason must contain
+         * @return this builder
+         */
+        public Builder reason(@Nullable String reason) {
+            this.reason = reason == null || reason.isEmpty() ? null : reason;
+            return this;
+        }
+
+        /**
+         * @param after the cursor of the page to query, as returned by {@link PunishmentPage#next()}, or null for the first page
+         * @return this builder
+         */
+        public Builder after(@Nullable PunishmentCursor after) {
+            this.after = after;
+            return this;
+        }
+
+        /**
+         * @param limit the maximum number of punishments returned, {@value DEFAULT_LIMIT} by default
+         * @return this builder
+         * @throws IllegalArgumentException if {@code limit} is not positive
+         */
+        public Builder limit(int limit) {
+            if (limit <= 0) {
+                throw new IllegalArgumentException("limit must be positive: " + limit);
+            }
+            this.limit = limit;
+            return this;
+        }
+
+        public PunishmentQuery build() {
+            return new PunishmentQuery(this);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.api.punishment.util;
+
+import de.jvstvshd.velocitypunishment.api.punishment.PunishmentDuration;
+import de.jvstvshd.velocitypunishment.api.punishment.TemporalPunishment;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Selects the punishment that governs a player out of several punishments of the same kind, e.g. the ban to show
+ * when a player has multiple bans. Each selection is a single pass over the punishments without intermediate
+ * collections.
+ * <p>
+ * Punishments are ranked as follows:
+ * <ol>
+ *     <li>permanent punishments rank above all temporary ones</li>
+ *     <li>otherwise, the punishment expiring last ranks highest</li>
+ *     <li>ties are broken by the punishment id, the smaller one ranking higher, so the result does not depend on the
+ *     order of the punishments</li>
+ * </ol>
+ */
+public final class PunishmentSelector {
+
+    private PunishmentSelector() {
+    }
+
+    /**
+     * Selects the highest ranked punishment, regardless of whether it already expired.
+     *
+     * @param punishments the punishments
+     * @param <T>         the type of the punishments
+     * @return the highest ranked punishment or null, if {@code punishments} is empty
+     */
+    public static <T extends TemporalPunishment> @Nullable T longest(Iterable<? extends T> punishments) {
+        return select(punishments, false);
+    }
+
+    /**
+     * Selects the highest ranked punishment that has not expired yet.
+     *
+     * @param punishments the punishments
+     * @param <T>         the type of the punishments
+     * @return the highest ranked active punishment or null, if there is none
+     */
+    public static <T extends TemporalPunishment> @Nullable T governing(Iterable<? extends T> punishments) {
+        return select(punishments, true);
+    }
+
+    private static <T extends TemporalPunishment> T select(Iterable<? extends T> punishments, boolean activeOnly) {
+        T best = null;
+        boolean bestPermanent = false;
+        long bestExpiration = Long.MIN_VALUE;
+        for (T candidate : punishments) {
+            PunishmentDuration duration = candidate.getDuration();
+            if (activeOnly && duration.isExpired()) {
+                continue;
+            }
+            boolean permanent = duration.isPermanent();
+            long expiration = duration.expirationMillis();
+            if (best == null || ranksHigher(permanent, expiration, candidate, bestPermanent, bestExpiration, best)) {
+                best = candidate;
+                bestPermanent = permanent;
+                bestExpiration = expiration;
+            }
+        }
+        return best;
+    }
+
+    private static boolean ranksHigher(boolean permanent, long expiration, TemporalPunishment candidate,
+                                       boolean bestPermanent, long bestExpiration, TemporalPunishment best) {
+        if (permanent != bestPermanent) {
+            return permanent;
+        }
+        if (expiration != bestExpiration) {
+            return expiration > bestExpiration;
+        }
+        return candidate.getPunishmentUuid().compareTo(best.getPunishmentUuid()) < 0;
+    }
+}
@@ -0,0 +1,34 @@
+plugins {
+    java
+    id("me.champeau.jmh") version "0.6.6"
+}
+
+group = "de.jvstvshd.punishment.velocity"
+version = "1.0.0"
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    jmhImplementation(project(":plugin"))
+    jmhImplementation(project(":api"))
+    jmhImplementation("com.velocitypowered:velocity-api:3.1.1")
+    jmhImplementation("com.h2database:h2:2.1.214")
+    jmhRuntimeOnly("org.slf4j:slf4j-nop:1.7.36")
+}
+
+jmh {
+    jmhVersion.set("1.35")
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    resultFormat.set("JSON")
+}
+
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Runs the synthetic join and chat load generator against an embedded database."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass.set("de.jvstvshd.velocitypunishment.benchmark.load.LoadGenerator")
+}
@@ -0,0 +1,161 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.benchmark;
+
+import com.velocitypowered.api.event.proxy.ProxyInitializeEvent;
+import com.velocitypowered.api.event.proxy.ProxyShutdownEvent;
+import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.api.proxy.ProxyServer;
+import de.jvstvshd.velocitypunishment.api.punishment.PunishmentDuration;
+import net.kyori.adventure.text.Component;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * A fully initialized plugin instance running against an embedded database and a stubbed {@link ProxyServer}, seeded
+ * with a number of players of whom a configurable share is banned or muted.
+ */
+public class BenchmarkEnvironment implements AutoCloseable {
+
+    private final Path directory;
+    private final BenchmarkPlugin plugin;
+    private final StaticPlayerResolver playerResolver;
+    private final List<Player> unpunished = new ArrayList<>();
+    private final List<Player> banned = new ArrayList<>();
+    private final List<Player> muted = new ArrayList<>();
+    private final AtomicInteger nextAddress = new AtomicInteger(1);
+
+    private BenchmarkEnvironment(Path directory, BenchmarkPlugin plugin, StaticPlayerResolver playerResolver) {
+        this.directory = directory;
+        this.plugin = plugin;
+        this.playerResolver = playerResolver;
+    }
+
+    /**
+     * Creates and seeds a new environment.
+     *
+     * @param playerCount the number of players to create
+     * @param bannedRatio the share of players which are banned
+     * @param mutedRatio  the share of players which are muted
+     * @return the new environment
+     * @throws IOException if the data directory could not be created
+     */
+    public static BenchmarkEnvironment create(int playerCount, double bannedRatio, double mutedRatio) throws IOException {
+        var directory = Files.createTempDirectory("velocity-punishment-benchmark");
+        var server = Stubs.stub(ProxyServer.class);
+        var jdbcUrl = "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MariaDB;DB_CLOSE_DELAY=-1";
+        var plugin = new BenchmarkPlugin(server, LoggerFactory.getLogger("velocity-punishment-benchmark"), directory, jdbcUrl);
+        var playerResolver = new StaticPlayerResolver();
+        plugin.onProxyInitialization(new ProxyInitializeEvent());
+        plugin.setPlayerResolver(playerResolver);
+        plugin.reload().join();
+        var environment = new BenchmarkEnvironment(directory, plugin, playerResolver);
+        environment.seed(playerCount, bannedRatio, mutedRatio);
+        return environment;
+    }
+
+    private void seed(int playerCount, double bannedRatio, double mutedRatio) {
+        var random = new Random(42);
+        var punishmentManager = plugin.getPunishmentManager();
+        for (int i = 0; i < playerCount; i++) {
+            var player = createPlayer(UUID.randomUUID(), "player" + i);
+            var roll = random.nextDouble();
+            if (roll < bannedRatio) {
+                punishmentManager.createBan(player.getUniqueId(), Component.text("benchmark ban"), PunishmentDuration.parse("30d")).punish().join();
+                banned.add(player);
+            } else if (roll < bannedRatio + mutedRatio) {
+                punishmentManager.createMute(player.getUniqueId(), Component.text("benchmark mute"), PunishmentDuration.parse("30d")).punish().join();
+                muted.add(player);
+            } else {
+                unpunished.add(player);
+            }
+        }
+    }
+
+    /**
+     * Creates a stubbed player and makes it known to the player resolver of this environment. Every player connects
+     * from its own address in 10.0.0.0/8.
+     *
+     * @param uuid the uuid of the player
+     * @param name the name of the player
+     * @return the player
+     */
+    public Player createPlayer(UUID uuid, String name) {
+        playerResolver.add(uuid, name);
+        var address = nextAddress();
+        Map<String, Function<Object[], Object>> answers = Map.of(
+                "getUniqueId", args -> uuid,
+                "getUsername", args -> name,
+                "getEffectiveLocale", args -> Locale.ENGLISH,
+                "getRemoteAddress", args -> address);
+        return Stubs.stub(Player.class, answers);
+    }
+
+    private InetSocketAddress nextAddress() {
+        int host = nextAddress.getAndIncrement();
+        try {
+            return new InetSocketAddress(InetAddress.getByAddress(new byte[]{10, (byte) (host >> 16), (byte) (host >> 8), (byte) host}), 25565);
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public BenchmarkPlugin plugin() {
+        return plugin;
+    }
+
+    public List<Player> unpunished() {
+        return unpunished;
+    }
+
+    public List<Player> banned() {
+        return banned;
+    }
+
+    public List<Player> muted() {
+        return muted;
+    }
+
+    @Override
+    public void close() throws IOException {
+        plugin.onProxyShutdown(new ProxyShutdownEvent());
+        plugin.getDataSource().close();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.benchmark;
+
+import com.velocitypowered.api.proxy.ProxyServer;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import de.jvstvshd.velocitypunishment.VelocityPunishmentPlugin;
+import de.jvstvshd.velocitypunishment.sql.Dialect;
+import org.h2.jdbcx.JdbcDataSource;
+import org.slf4j.Logger;
+
+import java.nio.file.Path;
+
+/**
+ * The plugin backed by an embedded H2 database in MariaDB compatibility mode instead of a MariaDB server. All statements
+ * are counted by a {@link CountingDataSource}.
+ */
+public class BenchmarkPlugin extends VelocityPunishmentPlugin {
+
+    private final CountingDataSource countingDataSource;
+
+    public BenchmarkPlugin(ProxyServer server, Logger logger, Path dataDirectory, String jdbcUrl) {
+        super(server, logger, dataDirectory);
+        var h2 = new JdbcDataSource();
+        h2.setURL(jdbcUrl);
+        this.countingDataSource = new CountingDataSource(h2);
+    }
+
+    @Override
+    protected HikariDataSource createDataSource() {
+        var config = new HikariConfig();
+        config.setDataSource(countingDataSource);
+        config.setPoolName("velocity-punishment-benchmark");
+        return new HikariDataSource(config);
+    }
+
+    @Override
+    protected Dialect getDialect() {
+        return Dialect.H2;
+    }
+
+    public CountingDataSource getCountingDataSource() {
+        return countingDataSource;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.benchmark;
+
+import com.velocitypowered.api.event.connection.LoginEvent;
+import com.velocitypowered.api.event.player.PlayerChatEvent;
+import com.velocitypowered.api.proxy.Player;
+import de.jvstvshd.velocitypunishment.listener.ChatListener;
+import de.jvstvshd.velocitypunishment.listener.ConnectListener;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the checks performed for every login and every chat message.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EnforcementBenchmark {
+
+    @Param({"1000"})
+    public int players;
+
+    private BenchmarkEnvironment environment;
+    private ConnectListener connectListener;
+    private ChatListener chatListener;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        environment = BenchmarkEnvironment.create(players, 0.1, 0.1);
+        var plugin = environment.plugin();
+        chatListener = new ChatListener(plugin);
+        connectListener = new ConnectListener(plugin, Executors.newCachedThreadPool(), plugin.getServer(), chatListener);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        environment.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int index;
+
+        Player next(List<Player> players) {
+            return players.get(index++ % players.size());
+        }
+    }
+
+    @Benchmark
+    public LoginEvent loginUnpunished(Cursor cursor) throws Exception {
+        var event = new LoginEvent(cursor.next(environment.unpunished()));
+        connectListener.onConnect(event);
+        return event;
+    }
+
+    @Benchmark
+    public LoginEvent loginBanned(Cursor cursor) throws Exception {
+        var event = new LoginEvent(cursor.next(environment.banned()));
+        connectListener.onConnect(event);
+        return event;
+    }
+
+    @Benchmark
+    public PlayerChatEvent chatUnmuted(Cursor cursor) {
+        var event = new PlayerChatEvent(cursor.next(environment.unpunished()), "hello");
+        chatListener.onChat(event);
+        return event;
+    }
+
+    @Benchmark
+    public PlayerChatEvent chatMuted(Cursor cursor) {
+        var event = new PlayerChatEvent(cursor.next(environment.muted()), "hello");
+        chatListener.onChat(event);
+        return event;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.benchmark;
+
+import com.velocitypowered.api.proxy.Player;
+import de.jvstvshd.velocitypunishment.api.message.MessageProvider;
+import net.kyori.adventure.text.Component;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures rendering translated messages through the plugin's {@link MessageProvider}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MessageProviderBenchmark {
+
+    private BenchmarkEnvironment environment;
+    private MessageProvider messageProvider;
+    private Player player;
+    private Component reason;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        environment = BenchmarkEnvironment.create(0, 0, 0);
+        messageProvider = environment.plugin().getMessageProvider();
+        player = environment.createPlayer(UUID.randomUUID(), "player");
+        reason = Component.text("spam");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        environment.close();
+    }
+
+    @Benchmark
+    public Component prefix() {
+        return messageProvider.prefix(player);
+    }
+
+    @Benchmark
+    public Component provideWithoutArguments() {
+        return messageProvider.provide("command.ban.usage", player, true);
+    }
+
+    @Benchmark
+    public Component provideFullReason() {
+        return messageProvider.provide("punishment.mute.temp.full-reason", player, true, Component.text("1d"), reason, Component.text("2022-01-01 00:00:00"));
+    }
+}
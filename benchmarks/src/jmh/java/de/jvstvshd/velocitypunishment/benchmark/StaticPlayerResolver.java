@@ -0,0 +1,79 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.benchmark;
+
+import de.jvstvshd.velocitypunishment.api.punishment.util.PlayerResolver;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * A {@link PlayerResolver} answering from a fixed set of players, so benchmarks never query the Mojang API.
+ */
+public class StaticPlayerResolver implements PlayerResolver {
+
+    private final Map<UUID, String> names = new ConcurrentHashMap<>();
+    private final Map<String, UUID> uuids = new ConcurrentHashMap<>();
+
+    public void add(UUID uuid, String name) {
+        names.put(uuid, name);
+        uuids.put(name.toLowerCase(), uuid);
+    }
+
+    @Override
+    public Optional<String> getPlayerName(@NotNull UUID uuid) {
+        return Optional.ofNullable(names.get(uuid));
+    }
+
+    @Override
+    public CompletableFuture<String> queryPlayerName(@NotNull UUID uuid, @NotNull Executor executor) {
+        return CompletableFuture.completedFuture(names.get(uuid));
+    }
+
+    @Override
+    public CompletableFuture<String> getOrQueryPlayerName(@NotNull UUID uuid, @NotNull Executor executor) {
+        return queryPlayerName(uuid, executor);
+    }
+
+    @Override
+    public Optional<UUID> getPlayerUuid(@NotNull String name) {
+        return Optional.ofNullable(uuids.get(name.toLowerCase()));
+    }
+
+    @Override
+    public CompletableFuture<UUID> queryPlayerUuid(@NotNull String name, @NotNull Executor executor) {
+        return CompletableFuture.completedFuture(uuids.get(name.toLowerCase()));
+    }
+
+    @Override
+    public CompletableFuture<UUID> getOrQueryPlayerUuid(@NotNull String name, @NotNull Executor executor) {
+        return queryPlayerUuid(name, executor);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Creates no-op implementations of Velocity interfaces. Every abstract method returns a neutral value: {@code false},
+ * zero, an empty string, collection or {@link Optional}, a completed future, or another stub for interface return types.
+ * Single methods can be answered explicitly through the {@code answers} map.
+ */
+public final class Stubs {
+
+    private Stubs() {
+    }
+
+    public static <T> T stub(Class<T> type) {
+        return stub(type, Map.of());
+    }
+
+    public static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        InvocationHandler handler = (proxy, method, args) -> answer(proxy, method, args, answers);
+        return type.cast(Proxy.newProxyInstance(Stubs.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object answer(Object proxy, Method method, Object[] args, Map<String, Function<Object[], Object>> answers) throws Throwable {
+        var answer = answers.get(method.getName());
+        if (answer != null) {
+            return answer.apply(args);
+        }
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "Stub[" + method.getDeclaringClass().getSimpleName() + "]";
+        }
+        if (method.isDefault()) {
+            return InvocationHandler.invokeDefault(proxy, method, args);
+        }
+        return defaultValue(method.getReturnType());
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == void.class) {
+            return null;
+        }
+        if (type.isPrimitive()) {
+            if (type == boolean.class) return false;
+            if (type == char.class) return (char) 0;
+            if (type == byte.class) return (byte) 0;
+            if (type == short.class) return (short) 0;
+            if (type == int.class) return 0;
+            if (type == long.class) return 0L;
+            if (type == float.class) return 0F;
+            return 0D;
+        }
+        if (type == String.class) return "";
+        if (type == Optional.class) return Optional.empty();
+        if (type == CompletableFuture.class) return CompletableFuture.completedFuture(null);
+        if (type == List.class || type == Collection.class) return List.of();
+        if (type == Set.class) return Set.of();
+        if (type == Map.class) return Map.of();
+        if (type.isInterface()) return stub(type);
+        return null;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.benchmark;
+
+import de.jvstvshd.velocitypunishment.api.punishment.Ban;
+import de.jvstvshd.velocitypunishment.api.punishment.PunishmentDuration;
+import de.jvstvshd.velocitypunishment.api.punishment.TemporalPunishment;
+import de.jvstvshd.velocitypunishment.api.punishment.util.PunishmentSelector;
+import de.jvstvshd.velocitypunishment.impl.DefaultBan;
+import de.jvstvshd.velocitypunishment.internal.Util;
+import net.kyori.adventure.text.Component;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Measures the helpers used while loading and evaluating punishments.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UtilBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int punishments;
+
+    private List<Ban> bans;
+    private UUID uuid;
+    private String uuidString;
+    private String trimmedUuid;
+
+    @Setup
+    public void setup() {
+        var random = new Random(42);
+        bans = new ArrayList<>();
+        for (int i = 0; i < punishments; i++) {
+            var expiration = Timestamp.from(Instant.now().plus(Duration.ofMinutes(1 + random.nextInt(100_000))));
+            bans.add(new DefaultBan(UUID.randomUUID(), Component.text("ban"), null, null, null, null, PunishmentDuration.fromTimestamp(expiration), null));
+        }
+        uuid = UUID.randomUUID();
+        uuidString = uuid.toString();
+        trimmedUuid = Util.trimUuid(uuid);
+    }
+
+    @Benchmark
+    public PunishmentDuration parseDuration() {
+        return PunishmentDuration.parse("1d12h30m15s");
+    }
+
+    @Benchmark
+    public Ban longestPunishment() {
+        return PunishmentSelector.longest(bans);
+    }
+
+    @Benchmark
+    public Ban governingPunishment() {
+        return PunishmentSelector.governing(bans);
+    }
+
+    /**
+     * The previous implementation of {@link Util#getLongestPunishment(List)}, kept as baseline for
+     * {@link #longestPunishment()}: sorts a copy of the list and takes the last element.
+     */
+    @Benchmark
+    public Ban longestPunishmentSorted() {
+        List<Ban> sorted = bans.stream().sorted(Comparator.comparing(TemporalPunishment::getDuration)).collect(Collectors.toList());
+        return sorted.get(sorted.size() - 1);
+    }
+
+    @Benchmark
+    public UUID parseUuid() {
+        return Util.parseUuid(uuidString);
+    }
+
+    @Benchmark
+    public UUID parseTrimmedUuid() {
+        return Util.parseUuid(trimmedUuid);
+    }
+
+    @Benchmark
+    public String trimUuid() {
+        return Util.trimUuid(uuid);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.benchmark.load;
+
+import java.util.Arrays;
+
+/**
+ * Collects latency samples of one phase of the load generator and summarizes them as percentiles.
+ */
+public class LatencyRecorder {
+
+    private final String name;
+    private long[] samples = new long[1024];
+    private int size;
+
+    public LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records a single sample.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public synchronized void record(long nanos) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public synchronized int count() {
+        return size;
+    }
+
+    /**
+     * Formats the percentiles of all recorded samples as one row of the report.
+     *
+     * @param statements the number of statements executed during this phase
+     * @return the row
+     */
+    public synchronized String summary(long statements) {
+        if (size == 0) {
+            return String.format("%-8s %8d %10s %10s %10s %10s %12s", name, 0, "-", "-", "-", "-", "-");
+        }
+        var sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        return String.format("%-8s %8d %10.3f %10.3f %10.3f %10.3f %12.2f", name, size,
+                millis(percentile(sorted, 0.5)), millis(percentile(sorted, 0.99)), millis(percentile(sorted, 0.999)),
+                millis(sorted[sorted.length - 1]), (double) statements / size);
+    }
+
+    public static String header() {
+        return String.format("%-8s %8s %10s %10s %10s %10s %12s", "phase", "events", "p50 ms", "p99 ms", "p999 ms", "max ms", "queries/evt");
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000D;
+    }
+}
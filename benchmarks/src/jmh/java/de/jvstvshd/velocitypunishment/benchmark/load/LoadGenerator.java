@@ -0,0 +1,231 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.benchmark.load;
+
+import com.velocitypowered.api.command.CommandSource;
+import com.velocitypowered.api.command.SimpleCommand;
+import com.velocitypowered.api.event.connection.LoginEvent;
+import com.velocitypowered.api.event.player.PlayerChatEvent;
+import com.velocitypowered.api.proxy.Player;
+import de.jvstvshd.velocitypunishment.benchmark.BenchmarkEnvironment;
+import de.jvstvshd.velocitypunishment.benchmark.Stubs;
+import de.jvstvshd.velocitypunishment.commands.TempmuteCommand;
+import de.jvstvshd.velocitypunishment.commands.UnmuteCommand;
+import de.jvstvshd.velocitypunishment.listener.ChatListener;
+import de.jvstvshd.velocitypunishment.listener.ConnectListener;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Drives the {@link ConnectListener}, the {@link ChatListener} and the mute commands with thousands of virtual players
+ * against an embedded database and reports latency percentiles and database statements per event.
+ * <p>
+ * The run consists of three phases: every player logs in once, the players that were allowed to join chat for a
+ * fixed duration at a fixed rate, and finally a number of {@code /tempmute} and {@code /unmute} commands is issued.
+ * Chat messages are scheduled at fixed points in time and their latency is measured from that point, so a stalled
+ * listener shows up in the percentiles instead of silently lowering the message rate.
+ * <p>
+ * Options are passed as {@code key=value} arguments, e.g. {@code ./gradlew :benchmarks:loadTest --args="players=5000 chatRate=0.5"}:
+ * <ul>
+ *     <li>{@code players} - number of virtual players (default 2000)</li>
+ *     <li>{@code banned} - share of banned players (default 0.05)</li>
+ *     <li>{@code muted} - share of muted players (default 0.05)</li>
+ *     <li>{@code chatRate} - chat messages per online player and second (default 0.2)</li>
+ *     <li>{@code duration} - duration of the chat phase in seconds (default 30)</li>
+ *     <li>{@code threads} - number of threads issuing events (default 8)</li>
+ *     <li>{@code commands} - number of commands issued in the command phase (default 200)</li>
+ * </ul>
+ */
+public final class LoadGenerator {
+
+    private final Options options;
+    private final BenchmarkEnvironment environment;
+    private final ChatListener chatListener;
+    private final ConnectListener connectListener;
+    private final ExecutorService listenerExecutor = Executors.newCachedThreadPool();
+    private final List<Player> online = new CopyOnWriteArrayList<>();
+
+    private LoadGenerator(Options options, BenchmarkEnvironment environment) {
+        this.options = options;
+        this.environment = environment;
+        var plugin = environment.plugin();
+        this.chatListener = new ChatListener(plugin);
+        this.connectListener = new ConnectListener(plugin, listenerExecutor, plugin.getServer(), chatListener);
+    }
+
+    public static void main(String[] args) throws Exception {
+        var options = Options.parse(args);
+        System.out.println("Seeding " + options.players + " players...");
+        try (var environment = BenchmarkEnvironment.create(options.players, options.banned, options.muted)) {
+            new LoadGenerator(options, environment).run();
+        }
+        System.exit(0);
+    }
+
+    private void run() throws InterruptedException {
+        var rows = new ArrayList<String>();
+        rows.add(measure(new LatencyRecorder("login"), this::logins));
+        rows.add(measure(new LatencyRecorder("chat"), this::chat));
+        rows.add(measure(new LatencyRecorder("command"), this::commands));
+        listenerExecutor.shutdown();
+        System.out.println();
+        System.out.println(options);
+        System.out.println(LatencyRecorder.header());
+        rows.forEach(System.out::println);
+    }
+
+    private String measure(LatencyRecorder recorder, Phase phase) throws InterruptedException {
+        var statements = environment.plugin().getCountingDataSource();
+        long before = statements.statements();
+        long start = System.nanoTime();
+        runOnThreads(phase, recorder);
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%s phase: %d events in %.1f s%n", recorder.name(), recorder.count(), elapsed / 1e9);
+        return recorder.summary(statements.statements() - before);
+    }
+
+    private void runOnThreads(Phase phase, LatencyRecorder recorder) throws InterruptedException {
+        var threads = new ArrayList<Thread>();
+        for (int i = 0; i < options.threads; i++) {
+            int index = i;
+            var thread = new Thread(() -> {
+                try {
+                    phase.run(index, recorder);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }, "load-generator-" + i);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private void logins(int thread, LatencyRecorder recorder) throws Exception {
+        var players = new ArrayList<Player>();
+        players.addAll(environment.unpunished());
+        players.addAll(environment.muted());
+        players.addAll(environment.banned());
+        for (int i = thread; i < players.size(); i += options.threads) {
+            var player = players.get(i);
+            var event = new LoginEvent(player);
+            long start = System.nanoTime();
+            connectListener.onConnect(event);
+            recorder.record(System.nanoTime() - start);
+            if (event.getResult().isAllowed()) {
+                online.add(player);
+            }
+        }
+    }
+
+    private void chat(int thread, LatencyRecorder recorder) {
+        if (online.isEmpty() || options.chatRate <= 0) {
+            return;
+        }
+        var random = ThreadLocalRandom.current();
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) * options.threads / (online.size() * options.chatRate));
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.duration);
+        long next = System.nanoTime() + interval * thread / options.threads;
+        while (next < end) {
+            long now;
+            while ((now = System.nanoTime()) < next) {
+                LockSupport.parkNanos(next - now);
+            }
+            var event = new PlayerChatEvent(online.get(random.nextInt(online.size())), "hello");
+            chatListener.onChat(event);
+            recorder.record(System.nanoTime() - next);
+            next += interval;
+        }
+    }
+
+    private void commands(int thread, LatencyRecorder recorder) throws Exception {
+        var plugin = environment.plugin();
+        var tempmute = new TempmuteCommand(plugin, chatListener);
+        var unmute = new UnmuteCommand(plugin, chatListener);
+        var targets = environment.unpunished();
+        var random = ThreadLocalRandom.current();
+        for (int i = thread; i < options.commands; i += options.threads) {
+            var target = targets.get(random.nextInt(targets.size())).getUsername();
+            var response = new CompletableFuture<Void>();
+            long start = System.nanoTime();
+            if (i % 2 == 0) {
+                tempmute.execute(invocation(response, target, "10m", "load", "test"));
+            } else {
+                unmute.execute(invocation(response, target));
+            }
+            response.get(30, TimeUnit.SECONDS);
+            recorder.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Creates a command invocation whose source completes {@code response} once it receives its first message.
+     */
+    private static SimpleCommand.Invocation invocation(CompletableFuture<Void> response, String... arguments) {
+        Map<String, Function<Object[], Object>> sourceAnswers = Map.of("sendMessage", args -> {
+            response.complete(null);
+            return null;
+        });
+        var source = Stubs.stub(CommandSource.class, sourceAnswers);
+        Map<String, Function<Object[], Object>> answers = Map.of(
+                "source", args -> source,
+                "arguments", args -> arguments,
+                "alias", args -> "load");
+        return Stubs.stub(SimpleCommand.Invocation.class, answers);
+    }
+
+    @FunctionalInterface
+    private interface Phase {
+        void run(int thread, LatencyRecorder recorder) throws Exception;
+    }
+
+    private record Options(int players, double banned, double muted, double chatRate, int duration, int threads,
+                           int commands) {
+
+        private static Options parse(String[] args) {
+            var values = new HashMap<String, String>();
+            for (String arg : args) {
+                int separator = arg.indexOf('=');
+                if (separator < 0) {
+                    throw new IllegalArgumentException("expected key=value but got " + arg);
+                }
+                values.put(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+            return new Options(
+                    Integer.parseInt(values.getOrDefault("players", "2000")),
+                    Double.parseDouble(values.getOrDefault("banned", "0.05")),
+                    Double.parseDouble(values.getOrDefault("muted", "0.05")),
+                    Double.parseDouble(values.getOrDefault("chatRate", "0.2")),
+                    Integer.parseInt(values.getOrDefault("duration", "30")),
+                    Integer.parseInt(values.getOrDefault("threads", "8")),
+                    Integer.parseInt(values.getOrDefault("commands", "200")));
+        }
+    }
+}
@@ -29,33 +29,48 @@ import com.velocitypowered.api.command.CommandManager;
 import com.velocitypowered.api.event.EventManager;
 import com.velocitypowered.api.event.Subscribe;
 import com.velocitypowered.api.event.proxy.ProxyInitializeEvent;
+import com.velocitypowered.api.event.proxy.ProxyShutdownEvent;
 import com.velocitypowered.api.plugin.Plugin;
 import com.velocitypowered.api.plugin.annotation.DataDirectory;
 import com.velocitypowered.api.proxy.ProxyServer;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import de.jvstvshd.velocitypunishment.api.VelocityPunishment;
 import de.jvstvshd.velocitypunishment.api.message.MessageProvider;
 import de.jvstvshd.velocitypunishment.api.punishment.PunishmentManager;
 import de.jvstvshd.velocitypunishment.api.punishment.util.PlayerResolver;
 import de.jvstvshd.velocitypunishment.commands.*;
+import de.jvstvshd.velocitypunishment.config.AltDetectionData;
 import de.jvstvshd.velocitypunishment.config.ConfigurationManager;
+import de.jvstvshd.velocitypunishment.config.ConfigurationWatcher;
+import de.jvstvshd.velocitypunishment.impl.AddressBanManager;
 import de.jvstvshd.velocitypunishment.impl.DefaultPlayerResolver;
 import de.jvstvshd.velocitypunishment.impl.DefaultPunishmentManager;
+import de.jvstvshd.velocitypunishment.impl.LoginHistory;
+import de.jvstvshd.velocitypunishment.internal.PlayerNameIndex;
+import de.jvstvshd.velocitypunishment.internal.ReasonTemplates;
+import de.jvstvshd.velocitypunishment.internal.Util;
 import de.jvstvshd.velocitypunishment.listener.ChatListener;
 import de.jvstvshd.velocitypunishment.listener.ConnectListener;
 import de.jvstvshd.velocitypunishment.message.ResourceBundleMessageProvider;
+import de.jvstvshd.velocitypunishment.message.TranslationLoader;
+import de.jvstvshd.velocitypunishment.metrics.DefaultMetrics;
+import de.jvstvshd.velocitypunishment.metrics.PrometheusExporter;
+import de.jvstvshd.velocitypunishment.sql.Dialect;
+import de.jvstvshd.velocitypunishment.sql.QueryExecutor;
+import net.kyori.adventure.translation.GlobalTranslator;
 import org.slf4j.Logger;
 
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
 
 @Plugin(id = "velocity-punishment", name = "Velocity Punishment Plugin", version = "1.0.0-SNAPSHOT", description = "A simple punishment plugin for Velocity", authors = {"JvstvsHD"})
 public class VelocityPunishmentPlugin implements VelocityPunishment {
@@ -63,46 +78,163 @@ public class VelocityPunishmentPlugin implements VelocityPunishment {
     private final ProxyServer server;
     private final Logger logger;
     private final ConfigurationManager configurationManager;
+    private final Path dataDirectory;
     private final ExecutorService service = Executors.newCachedThreadPool();
+    private final PlayerNameIndex playerNameIndex = new PlayerNameIndex();
+    private final DefaultMetrics metrics = new DefaultMetrics();
     private PunishmentManager punishmentManager;
+    private AddressBanManager addressBanManager;
+    private LoginHistory loginHistory;
     private HikariDataSource dataSource;
+    private QueryExecutor queryExecutor;
     private PlayerResolver playerResolver;
-    private MessageProvider messageProvider;
+    private volatile MessageProvider messageProvider;
+    private volatile ReasonTemplates reasonTemplates = ReasonTemplates.empty();
+    private TranslationLoader translationLoader;
+    private ConfigurationWatcher configurationWatcher;
+    private PrometheusExporter prometheusExporter;
+    private ChatListener chatListener;
 
     @Inject
     public VelocityPunishmentPlugin(ProxyServer server, Logger logger, @DataDirectory Path dataDirectory) {
         this.server = server;
         this.logger = logger;
+        this.dataDirectory = dataDirectory;
         this.configurationManager = new ConfigurationManager(Paths.get(dataDirectory.toAbsolutePath().toString(), "config.json"));
-        this.playerResolver = new DefaultPlayerResolver(server);
+        this.playerResolver = new DefaultPlayerResolver(server, metrics);
     }
 
     @Subscribe
     public void onProxyInitialization(ProxyInitializeEvent event) {
+        translationLoader = new TranslationLoader(dataDirectory.resolve("translations"), logger, service);
+        GlobalTranslator.get().addSource(translationLoader);
+        translationLoader.load();
         try {
             configurationManager.load();
             if (configurationManager.getConfiguration().isWhitelistActivated()) {
                 logger.info("Whitelist is activated. This means that nobody can join this server beside players you have explicitly allowed to join this server via /whitelist <player> add");
             }
             this.messageProvider = new ResourceBundleMessageProvider(configurationManager.getConfiguration());
+            this.reasonTemplates = ReasonTemplates.load(configurationManager.getConfiguration().getReasonTemplates(), logger);
         } catch (IOException e) {
             logger.error("Could not load configuration", e);
         }
         dataSource = createDataSource();
+        queryExecutor = new QueryExecutor(dataSource, getDialect(), metrics, logger,
+                () -> configurationManager.getConfiguration().getMetricsData().getSlowQueryThresholdMillis());
+        registerGauges();
         punishmentManager = new DefaultPunishmentManager(server, dataSource, this);
         try {
             initDataSource();
         } catch (SQLException e) {
-            logger.error("Could not create table velocity_punishment in database " + dataSource.getDataSourceProperties().get("dataSource.databaseName"), e);
+            logger.error("Could not create table velocity_punishment in database " + configurationManager.getConfiguration().getDataBaseData().getDatabase(), e);
         }
+        addressBanManager = new AddressBanManager(this, service);
+        loadAddressBans();
+        loginHistory = new LoginHistory(this, service);
+        if (getAltDetectionData().isEnabled()) {
+            loginHistory.load(getAltDetectionData().getHistoryDays()).whenComplete((accounts, throwable) -> {
+                if (throwable != null) {
+                    logger.error("Could not load login history", throwable);
+                    return;
+                }
+                logger.info("Loaded the addresses of " + accounts + " accounts");
+            });
+        }
+        server.getScheduler().buildTask(this, this::pruneLoginHistory).delay(1, TimeUnit.HOURS).repeat(1, TimeUnit.HOURS).schedule();
         setup(server.getCommandManager(), server.getEventManager());
+        if (configurationManager.getConfiguration().isAutoReload()) {
+            configurationWatcher = new ConfigurationWatcher(configurationManager.getPath(), dataDirectory.resolve("translations"), logger, () -> reload().join());
+            try {
+                configurationWatcher.start();
+            } catch (IOException e) {
+                logger.error("Could not watch configuration files for changes", e);
+            }
+        }
+        var metricsData = configurationManager.getConfiguration().getMetricsData();
+        if (metricsData.isPrometheusEnabled()) {
+            try {
+                prometheusExporter = new PrometheusExporter(metrics, metricsData.getPrometheusHost(), metricsData.getPrometheusPort());
+                prometheusExporter.start();
+            } catch (IOException e) {
+                logger.error("Could not start the Prometheus endpoint on " + metricsData.getPrometheusHost() + ":" + metricsData.getPrometheusPort(), e);
+            }
+        }
         logger.info("Velocity Punishment Plugin v1.0.0 has been loaded");
     }
 
+    @Subscribe
+    public void onProxyShutdown(ProxyShutdownEvent event) {
+        if (configurationWatcher != null) {
+            try {
+                configurationWatcher.close();
+            } catch (IOException e) {
+                logger.error("Could not stop watching configuration files", e);
+            }
+        }
+        if (prometheusExporter != null) {
+            prometheusExporter.close();
+        }
+        if (loginHistory != null) {
+            try {
+                loginHistory.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Reloads the configuration and all translations. The new configuration and translations replace the old ones
+     * atomically, so commands being executed at the moment keep working with the message provider they obtained.
+     * Database settings are only applied after a restart.
+     *
+     * @return a {@link CompletableFuture} being completed once the reload has finished
+     */
+    public CompletableFuture<Void> reload() {
+        return Util.executeAsync(() -> {
+            configurationManager.load();
+            return null;
+        }, service).thenCompose(unused -> translationLoader.load()).thenRun(() -> {
+            if (messageProvider instanceof ResourceBundleMessageProvider) {
+                messageProvider = new ResourceBundleMessageProvider(configurationManager.getConfiguration());
+            }
+            reasonTemplates = ReasonTemplates.load(configurationManager.getConfiguration().getReasonTemplates(), logger);
+            if (chatListener != null) {
+                chatListener.invalidate();
+            }
+            loadAddressBans();
+            logger.info("Configuration and translations have been reloaded");
+        });
+    }
+
+    private void pruneLoginHistory() {
+        loginHistory.prune(getAltDetectionData().getHistoryDays()).whenComplete((dropped, throwable) -> {
+            if (throwable != null) {
+                logger.error("Could not prune login history", throwable);
+            }
+        });
+    }
+
+    private void loadAddressBans() {
+        addressBanManager.load().whenComplete((count, throwable) -> {
+            if (throwable != null) {
+                logger.error("Could not load address bans", throwable);
+                return;
+            }
+            logger.info("Loaded " + count + " address bans");
+        });
+    }
+
     private void setup(CommandManager commandManager, EventManager eventManager) {
-        ChatListener chatListener = new ChatListener(this);
+        chatListener = new ChatListener(this);
 
-        eventManager.register(this, new ConnectListener(this, Executors.newCachedThreadPool(), server, chatListener));
+        playerNameIndex.addAll(server.getAllPlayers());
+        eventManager.register(this, playerNameIndex);
+        eventManager.register(this, loginHistory);
+        var connectListenerService = Executors.newCachedThreadPool();
+        metrics.executorGauges("connect-listener", connectListenerService);
+        eventManager.register(this, new ConnectListener(this, connectListenerService, server, chatListener));
         eventManager.register(this, chatListener);
 
         commandManager.register(commandManager.metaBuilder("ban").build(), new BanCommand(this));
@@ -113,36 +245,61 @@ public class VelocityPunishmentPlugin implements VelocityPunishment {
         commandManager.register(commandManager.metaBuilder("tempmute").build(), new TempmuteCommand(this, chatListener));
         commandManager.register(commandManager.metaBuilder("unmute").build(), new UnmuteCommand(this, chatListener));
         commandManager.register(commandManager.metaBuilder("kick").build(), new KickCommand(this));
+        commandManager.register(commandManager.metaBuilder("banip").build(), new BanIpCommand(this));
+        commandManager.register(commandManager.metaBuilder("unbanip").build(), new UnbanIpCommand(this));
 
         commandManager.register(commandManager.metaBuilder("whitelist").build(), new WhitelistCommand(this));
     }
 
-    private HikariDataSource createDataSource() {
+    protected HikariDataSource createDataSource() {
         var dbData = configurationManager.getConfiguration().getDataBaseData();
-        var properties = new Properties();
-        properties.setProperty("dataSource.databaseName", dbData.getDatabase());
-        properties.setProperty("dataSource.serverName", dbData.getHost());
-        properties.setProperty("dataSource.portNumber", dbData.getPort());
-        properties.setProperty("dataSourceClassName", org.mariadb.jdbc.MariaDbDataSource.class.getName());
-        properties.setProperty("dataSource.user", dbData.getUsername());
-        properties.setProperty("dataSource.password", dbData.getPassword());
-        var config = new HikariConfig(properties);
+        var config = new HikariConfig();
+        config.setDriverClassName(org.mariadb.jdbc.Driver.class.getName());
+        config.setJdbcUrl("jdbc:mariadb://" + dbData.getHost() + ":" + dbData.getPort() + "/" + dbData.getDatabase());
+        config.setUsername(dbData.getUsername());
+        config.setPassword(dbData.getPassword());
+        getDialect().getConnectionProperties().forEach(config::addDataSourceProperty);
         config.setPoolName("velocity-punishment-hikari");
         return new HikariDataSource(config);
     }
 
+    private void registerGauges() {
+        metrics.executorGauges("plugin", service);
+        poolGauge("pool.active", HikariPoolMXBean::getActiveConnections);
+        poolGauge("pool.idle", HikariPoolMXBean::getIdleConnections);
+        poolGauge("pool.total", HikariPoolMXBean::getTotalConnections);
+        poolGauge("pool.pending", HikariPoolMXBean::getThreadsAwaitingConnection);
+    }
+
+    private void poolGauge(String name, ToIntFunction<HikariPoolMXBean> value) {
+        metrics.gauge(name, () -> {
+            var pool = dataSource.getHikariPoolMXBean();
+            return pool == null ? 0 : value.applyAsInt(pool);
+        });
+    }
+
     private void initDataSource() throws SQLException {
-        try (Connection connection = dataSource.getConnection(); PreparedStatement statement =
-                connection.prepareStatement("CREATE TABLE IF NOT EXISTS velocity_punishment (uuid  VARCHAR (36), name VARCHAR (16), type VARCHAR (1000), expiration DATETIME (6), " +
-                        "reason VARCHAR (1000), punishment_id VARCHAR (36))")) {
-            statement.execute();
-        }
-        try (Connection connection = dataSource.getConnection(); PreparedStatement statement =
-                connection.prepareStatement("CREATE TABLE IF NOT EXISTS velocity_punishment_whitelist (uuid VARCHAR (36))")) {
-            statement.execute();
+        queryExecutor.createSchema();
+        var invalid = queryExecutor.validate();
+        invalid.forEach((statement, e) -> logger.error("Statement " + statement.getId() + " is invalid for this database: " + statement.sql(queryExecutor.getDialect()), e));
+        if (punishmentManager instanceof DefaultPunishmentManager defaultPunishmentManager) {
+            defaultPunishmentManager.fillReasonTexts().whenComplete((count, throwable) -> {
+                if (throwable != null) {
+                    logger.error("Could not store the plain text of existing reasons", throwable);
+                } else if (count > 0) {
+                    logger.info("Stored the plain text of " + count + " existing reasons");
+                }
+            });
         }
     }
 
+    /**
+     * @return the SQL dialect of the database returned by {@link #createDataSource()}
+     */
+    protected Dialect getDialect() {
+        return Dialect.MARIADB;
+    }
+
     @Override
     public PunishmentManager getPunishmentManager() {
         return punishmentManager;
@@ -153,6 +310,14 @@ public class VelocityPunishmentPlugin implements VelocityPunishment {
         this.punishmentManager = punishmentManager;
     }
 
+    public AddressBanManager getAddressBanManager() {
+        return addressBanManager;
+    }
+
+    public LoginHistory getLoginHistory() {
+        return loginHistory;
+    }
+
     @Override
     public PlayerResolver getPlayerResolver() {
         return playerResolver;
@@ -177,6 +342,14 @@ public class VelocityPunishmentPlugin implements VelocityPunishment {
         return dataSource;
     }
 
+    public QueryExecutor getQueryExecutor() {
+        return queryExecutor;
+    }
+
+    public ReasonTemplates getReasonTemplates() {
+        return reasonTemplates;
+    }
+
     @Override
     public MessageProvider getMessageProvider() {
         return messageProvider;
@@ -187,6 +360,15 @@ public class VelocityPunishmentPlugin implements VelocityPunishment {
         this.messageProvider = messageProvider;
     }
 
+    @Override
+    public DefaultMetrics getMetrics() {
+        return metrics;
+    }
+
+    public PlayerNameIndex getPlayerNameIndex() {
+        return playerNameIndex;
+    }
+
     public Logger getLogger() {
         return logger;
     }
@@ -194,4 +376,12 @@ public class VelocityPunishmentPlugin implements VelocityPunishment {
     public boolean whitelistActive() {
         return configurationManager.getConfiguration().isWhitelistActivated();
     }
+
+    public long getPrePunishmentTimeoutMillis() {
+        return configurationManager.getConfiguration().getPrePunishmentTimeoutMillis();
+    }
+
+    public AltDetectionData getAltDetectionData() {
+        return configurationManager.getConfiguration().getAltDetectionData();
+    }
 }
@@ -27,10 +27,11 @@ package de.jvstvshd.velocitypunishment.commands;
 import com.velocitypowered.api.command.CommandSource;
 import com.velocitypowered.api.command.SimpleCommand;
 import de.jvstvshd.velocitypunishment.VelocityPunishmentPlugin;
+import de.jvstvshd.velocitypunishment.api.punishment.Ban;
+import de.jvstvshd.velocitypunishment.api.punishment.PunishmentDuration;
 import de.jvstvshd.velocitypunishment.internal.PunishmentHelper;
 import de.jvstvshd.velocitypunishment.internal.Util;
 import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
 
@@ -58,16 +59,25 @@ public class BanCommand implements SimpleCommand {
         var parser = new PunishmentHelper();
         playerResolver.getOrQueryPlayerUuid(invocation.arguments()[0], plugin.getService()).whenCompleteAsync((uuid, throwable) -> {
             if (Util.sendErrorMessageIfErrorOccurred(invocation, source, uuid, throwable, plugin)) return;
-            TextComponent component = parser.parseComponent(1, invocation, Component.text("ban").color(NamedTextColor.DARK_RED));
-            punishmentManager.createPermanentBan(uuid, component).punish().whenCompleteAsync((ban, t) -> {
+            Ban punishment;
+            if (parser.isTemplateReason(1, invocation)) {
+                var template = parser.parseTemplate(1, invocation, plugin.getReasonTemplates(), plugin.getMessageProvider());
+                if (template.isEmpty()) {
+                    return;
+                }
+                punishment = parser.createBan(punishmentManager, uuid, template.get(), PunishmentDuration.permanent());
+            } else {
+                Component component = parser.parseComponent(1, invocation, Component.text("ban").color(NamedTextColor.DARK_RED));
+                punishment = punishmentManager.createPermanentBan(uuid, component);
+            }
+            punishment.punish().whenCompleteAsync((ban, t) -> {
                 if (t != null) {
-                    t.printStackTrace();
-                    source.sendMessage(plugin.getMessageProvider().internalError(source, true));
+                    Util.sendPunishmentError(source, t, plugin);
                 } else {
                     String uuidString = uuid.toString().toLowerCase();
                     source.sendMessage(plugin.getMessageProvider().provide("command.ban.success", source, true, copyComponent(invocation.arguments()[0], plugin.getMessageProvider(), source).color(NamedTextColor.YELLOW).decorate(TextDecoration.BOLD),
                             copyComponent(uuidString, plugin.getMessageProvider(), source).color(NamedTextColor.YELLOW).decorate(TextDecoration.BOLD),
-                            component).color(NamedTextColor.GREEN));
+                            ban.getReason()).color(NamedTextColor.GREEN));
                     source.sendMessage(plugin.getMessageProvider().provide("commands.general.punishment.id", source, true, copyComponent(ban.getPunishmentUuid().toString().toLowerCase(), plugin.getMessageProvider(), source).color(NamedTextColor.YELLOW)));
                 }
             });
@@ -77,8 +87,7 @@ public class BanCommand implements SimpleCommand {
 
     @Override
     public List<String> suggest(Invocation invocation) {
-        var proxyServer = plugin.getServer();
-        return Util.getPlayerNames(invocation, proxyServer);
+        return Util.getPlayerNames(invocation, plugin.getPlayerNameIndex());
     }
 
 
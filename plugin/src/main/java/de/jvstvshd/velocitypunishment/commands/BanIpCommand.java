@@ -0,0 +1,117 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.commands;
+
+import com.velocitypowered.api.command.CommandSource;
+import com.velocitypowered.api.command.SimpleCommand;
+import com.velocitypowered.api.proxy.Player;
+import de.jvstvshd.velocitypunishment.VelocityPunishmentPlugin;
+import de.jvstvshd.velocitypunishment.api.punishment.PunishmentDuration;
+import de.jvstvshd.velocitypunishment.internal.AddressRange;
+import de.jvstvshd.velocitypunishment.internal.PunishmentHelper;
+import de.jvstvshd.velocitypunishment.internal.Util;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+
+import java.util.List;
+import java.util.Optional;
+
+import static de.jvstvshd.velocitypunishment.internal.Util.copyComponent;
+
+public class BanIpCommand implements SimpleCommand {
+
+    private final VelocityPunishmentPlugin plugin;
+
+    public BanIpCommand(VelocityPunishmentPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void execute(Invocation invocation) {
+        CommandSource source = invocation.source();
+        if (invocation.arguments().length < 2) {
+            source.sendMessage(plugin.getMessageProvider().provide("command.banip.usage", source, true).color(NamedTextColor.RED));
+            return;
+        }
+        Optional<AddressRange> range = parseRange(invocation.arguments()[0], plugin, source);
+        if (range.isEmpty()) {
+            return;
+        }
+        PunishmentHelper parser = new PunishmentHelper();
+        PunishmentDuration duration;
+        if (invocation.arguments()[1].equalsIgnoreCase("permanent")) {
+            duration = PunishmentDuration.permanent();
+        } else {
+            Optional<PunishmentDuration> optDuration = parser.parseDuration(1, invocation, plugin.getMessageProvider());
+            if (optDuration.isEmpty()) {
+                return;
+            }
+            duration = optDuration.get();
+        }
+        Component reason = parser.parseComponent(2, invocation, Component.text("ban").color(NamedTextColor.DARK_RED));
+        plugin.getAddressBanManager().ban(range.get(), reason, duration).whenComplete((ban, t) -> {
+            if (t != null) {
+                source.sendMessage(plugin.getMessageProvider().internalError(source, true));
+                t.printStackTrace();
+                return;
+            }
+            source.sendMessage(plugin.getMessageProvider().provide("command.banip.success", source, true,
+                    copyComponent(ban.getRange().toString(), plugin.getMessageProvider(), source).color(NamedTextColor.YELLOW).decorate(TextDecoration.BOLD),
+                    reason).color(NamedTextColor.GREEN));
+            source.sendMessage(plugin.getMessageProvider().provide("commands.general.punishment.id", source, true,
+                    copyComponent(ban.getPunishmentUuid().toString().toLowerCase(), plugin.getMessageProvider(), source).color(NamedTextColor.YELLOW)));
+        });
+    }
+
+    /**
+     * Parses an address or a network in CIDR notation. The name of an online player stands for their address.
+     *
+     * @return the network or {@link Optional#empty()}, if {@code argument} is invalid; the source has been told so
+     */
+    static Optional<AddressRange> parseRange(String argument, VelocityPunishmentPlugin plugin, CommandSource source) {
+        try {
+            return Optional.of(AddressRange.parse(argument));
+        } catch (IllegalArgumentException e) {
+            Optional<Player> player = plugin.getServer().getPlayer(argument);
+            if (player.isPresent()) {
+                return Optional.of(AddressRange.of(player.get().getRemoteAddress().getAddress()));
+            }
+            source.sendMessage(plugin.getMessageProvider().provide("command.banip.invalid-address", source, true,
+                    Component.text(argument).color(NamedTextColor.YELLOW), Component.text(e.getMessage())).color(NamedTextColor.RED));
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public List<String> suggest(Invocation invocation) {
+        return Util.getPlayerNames(invocation, plugin.getPlayerNameIndex());
+    }
+
+    @Override
+    public boolean hasPermission(Invocation invocation) {
+        return invocation.source().hasPermission("punishment.command.banip");
+    }
+}
@@ -27,11 +27,12 @@ package de.jvstvshd.velocitypunishment.commands;
 import com.velocitypowered.api.command.CommandSource;
 import com.velocitypowered.api.command.SimpleCommand;
 import de.jvstvshd.velocitypunishment.VelocityPunishmentPlugin;
+import de.jvstvshd.velocitypunishment.api.punishment.Mute;
+import de.jvstvshd.velocitypunishment.api.punishment.PunishmentDuration;
 import de.jvstvshd.velocitypunishment.internal.PunishmentHelper;
 import de.jvstvshd.velocitypunishment.internal.Util;
 import de.jvstvshd.velocitypunishment.listener.ChatListener;
 import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
 
@@ -63,16 +64,25 @@ public class MuteCommand implements SimpleCommand {
         PunishmentHelper parser = new PunishmentHelper();
         playerResolver.getOrQueryPlayerUuid(invocation.arguments()[0], plugin.getService()).whenCompleteAsync((uuid, throwable) -> {
             if (Util.sendErrorMessageIfErrorOccurred(invocation, source, uuid, throwable, plugin)) return;
-            TextComponent reason = parser.parseComponent(1, invocation, Component.text("mute").color(NamedTextColor.DARK_RED));
-            punishmentManager.createPermanentMute(uuid, reason).punish().whenComplete((mute, t) -> {
+            Mute punishment;
+            if (parser.isTemplateReason(1, invocation)) {
+                var template = parser.parseTemplate(1, invocation, plugin.getReasonTemplates(), plugin.getMessageProvider());
+                if (template.isEmpty()) {
+                    return;
+                }
+                punishment = parser.createMute(punishmentManager, uuid, template.get(), PunishmentDuration.permanent());
+            } else {
+                Component reason = parser.parseComponent(1, invocation, Component.text("mute").color(NamedTextColor.DARK_RED));
+                punishment = punishmentManager.createPermanentMute(uuid, reason);
+            }
+            punishment.punish().whenComplete((mute, t) -> {
                 if (t != null) {
-                    t.printStackTrace();
-                    source.sendMessage(plugin.getMessageProvider().internalError(source, true));
+                    Util.sendPunishmentError(source, t, plugin);
                 } else {
                     String uuidString = uuid.toString().toLowerCase();
                     source.sendMessage(plugin.getMessageProvider().provide("command.mute.success", source, true, copyComponent(invocation.arguments()[0], plugin.getMessageProvider(), source).color(NamedTextColor.YELLOW).decorate(TextDecoration.BOLD),
                             copyComponent(uuidString, plugin.getMessageProvider(), source).color(NamedTextColor.YELLOW).decorate(TextDecoration.BOLD),
-                            reason).color(NamedTextColor.GREEN));
+                            mute.getReason()).color(NamedTextColor.GREEN));
                     source.sendMessage(plugin.getMessageProvider().provide("commands.general.punishment.id", source, true, copyComponent(mute.getPunishmentUuid().toString().toLowerCase(), plugin.getMessageProvider(), source).color(NamedTextColor.YELLOW)));
                 }
                 if (plugin.getServer().getPlayer(uuid).isPresent()) {
@@ -88,8 +98,7 @@ public class MuteCommand implements SimpleCommand {
 
     @Override
     public List<String> suggest(Invocation invocation) {
-        var server = plugin.getServer();
-        return Util.getPlayerNames(invocation, server);
+        return Util.getPlayerNames(invocation, plugin.getPlayerNameIndex());
     }
 
     @Override
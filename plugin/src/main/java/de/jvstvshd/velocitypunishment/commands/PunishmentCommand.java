@@ -27,51 +27,56 @@ package de.jvstvshd.velocitypunishment.commands;
 import com.google.common.collect.ImmutableList;
 import com.velocitypowered.api.command.CommandSource;
 import com.velocitypowered.api.command.SimpleCommand;
-import com.velocitypowered.api.proxy.ProxyServer;
 import de.jvstvshd.velocitypunishment.VelocityPunishmentPlugin;
 import de.jvstvshd.velocitypunishment.api.punishment.Punishment;
+import de.jvstvshd.velocitypunishment.api.punishment.PunishmentCursor;
 import de.jvstvshd.velocitypunishment.internal.PunishmentHelper;
 import de.jvstvshd.velocitypunishment.internal.Util;
 import de.jvstvshd.velocitypunishment.listener.ChatListener;
+import de.jvstvshd.velocitypunishment.sql.StatementStats;
+import de.jvstvshd.velocitypunishment.sql.SqlStatement;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.event.ClickEvent;
 import net.kyori.adventure.text.event.HoverEvent;
 import net.kyori.adventure.text.event.HoverEventSource;
 import net.kyori.adventure.text.format.NamedTextColor;
 
-import javax.sql.DataSource;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import static de.jvstvshd.velocitypunishment.internal.Util.copyComponent;
+
 public class PunishmentCommand implements SimpleCommand {
 
     private final ExecutorService service;
-    private final DataSource dataSource;
-    private final ProxyServer server;
     private final ChatListener chatListener;
     private final VelocityPunishmentPlugin plugin;
 
     public PunishmentCommand(VelocityPunishmentPlugin plugin, ChatListener chatListener) {
         this.service = plugin.getService();
-        this.dataSource = plugin.getDataSource();
-        this.server = plugin.getServer();
         this.chatListener = chatListener;
         this.plugin = plugin;
     }
 
+    /**
+     * Punishments shown per page of /punishment playerinfo.
+     */
+    private final static int PAGE_SIZE = 10;
     private final static List<String> PUNISHMENT_OPTIONS = ImmutableList.of("cancel", "remove", "info", "change");
     private final static List<String> ALL_OPTIONS;
 
     static {
         var full = new ArrayList<>(PUNISHMENT_OPTIONS);
         full.add("playerinfo");
+        full.add("alts");
+        full.add("reload");
+        full.add("metrics");
+        full.add("queries");
         ALL_OPTIONS = ImmutableList.copyOf(full);
     }
 
@@ -79,12 +84,35 @@ public class PunishmentCommand implements SimpleCommand {
     public void execute(Invocation invocation) {
         String[] arguments = invocation.arguments();
         CommandSource source = invocation.source();
+        if (arguments.length == 1 && arguments[0].equalsIgnoreCase("reload")) {
+            reload(source);
+            return;
+        }
+        if (arguments.length >= 1 && arguments[0].equalsIgnoreCase("metrics")) {
+            metrics(source, arguments.length > 1 ? arguments[1].toLowerCase(Locale.ROOT) : "");
+            return;
+        }
+        if (arguments.length == 1 && arguments[0].equalsIgnoreCase("queries")) {
+            queries(source);
+            return;
+        }
         if (arguments.length < 2) {
             source.sendMessage(plugin.getMessageProvider().provide("command.punishment.usage", source, true).color(NamedTextColor.RED));
             return;
         }
         var punishmentManager = plugin.getPunishmentManager();
+        if (arguments[0].equalsIgnoreCase("alts")) {
+            alts(invocation);
+            return;
+        }
         if (arguments[0].equalsIgnoreCase("playerinfo")) {
+            PunishmentCursor cursor;
+            try {
+                cursor = arguments.length > 2 ? PunishmentCursor.parse(arguments[2]) : null;
+            } catch (IllegalArgumentException e) {
+                source.sendMessage(plugin.getMessageProvider().provide("command.punishment.invalid-page", source, true).color(NamedTextColor.RED));
+                return;
+            }
             var playerResolver = plugin.getPlayerResolver();
             PunishmentHelper helper = new PunishmentHelper();
             helper.getPlayerUuid(1, service, playerResolver, invocation).whenCompleteAsync((uuid, throwable) -> {
@@ -97,20 +125,29 @@ public class PunishmentCommand implements SimpleCommand {
                     source.sendMessage(plugin.getMessageProvider().provide("command.punishment.not-banned", source, true).color(NamedTextColor.RED));
                     return;
                 }
-                punishmentManager.getPunishments(uuid, service).whenComplete((punishments, t) -> {
-                    if (t != null) {
-                        source.sendMessage(plugin.getMessageProvider().internalError(source, true));
-                        t.printStackTrace();
-                        return;
+                CompletableFuture<Integer> activeCount = cursor == null ? punishmentManager.countActive(uuid, service) : CompletableFuture.completedFuture(-1);
+                punishmentManager.getPunishments(uuid, service, cursor, PAGE_SIZE).thenCombine(activeCount, (page, active) -> {
+                    if (active >= 0) {
+                        source.sendMessage(plugin.getMessageProvider().provide("command.punishment.punishments", source, true, Component.text(active)).color(NamedTextColor.AQUA));
+                    } else {
+                        source.sendMessage(plugin.getMessageProvider().provide("command.punishment.punishments.page", source, true, Component.text(page.punishments().size())).color(NamedTextColor.AQUA));
                     }
-                    source.sendMessage(plugin.getMessageProvider().provide("command.punishment.punishments", source, true, Component.text(punishments.size())).color(NamedTextColor.AQUA));
-                    for (Punishment punishment : punishments) {
+                    for (Punishment punishment : page.punishments()) {
                         Component component = helper.buildPunishmentData(punishment, plugin.getMessageProvider(), source)
                                 .clickEvent(ClickEvent.suggestCommand(punishment.getPunishmentUuid().toString().toLowerCase(Locale.ROOT)))
                                 .hoverEvent((HoverEventSource<Component>) op -> HoverEvent.showText(plugin.getMessageProvider().provide("commands.general.copy")
                                         .color(NamedTextColor.GREEN)));
                         source.sendMessage(component);
                     }
+                    page.nextCursor().ifPresent(next -> source.sendMessage(plugin.getMessageProvider().provide("command.punishment.punishments.next-page", source)
+                            .color(NamedTextColor.YELLOW)
+                            .clickEvent(ClickEvent.runCommand("/punishment playerinfo " + arguments[1] + " " + next.serialize()))));
+                    return null;
+                }).whenComplete((unused, t) -> {
+                    if (t != null) {
+                        source.sendMessage(plugin.getMessageProvider().internalError(source, true));
+                        t.printStackTrace();
+                    }
                 });
             }, service);
             return;
@@ -162,23 +199,119 @@ public class PunishmentCommand implements SimpleCommand {
 
     }
 
+    private void alts(Invocation invocation) {
+        CommandSource source = invocation.source();
+        new PunishmentHelper().getPlayerUuid(1, service, plugin.getPlayerResolver(), invocation).whenCompleteAsync((uuid, throwable) -> {
+            if (throwable != null) {
+                source.sendMessage(plugin.getMessageProvider().internalError(source, true));
+                throwable.printStackTrace();
+                return;
+            }
+            if (uuid == null) {
+                source.sendMessage(plugin.getMessageProvider().provide("commands.general.not-found", source, true,
+                        Component.text(invocation.arguments()[1]).color(NamedTextColor.YELLOW)).color(NamedTextColor.RED));
+                return;
+            }
+            Set<UUID> alts = plugin.getLoginHistory().alts(uuid);
+            if (alts.isEmpty()) {
+                source.sendMessage(plugin.getMessageProvider().provide("command.punishment.alts.none", source, true).color(NamedTextColor.AQUA));
+                return;
+            }
+            source.sendMessage(plugin.getMessageProvider().provide("command.punishment.alts.header", source, true, Component.text(alts.size())).color(NamedTextColor.AQUA));
+            for (UUID alt : alts) {
+                plugin.getPlayerResolver().getOrQueryPlayerName(alt, service).whenComplete((name, t) -> {
+                    String uuidString = alt.toString().toLowerCase(Locale.ROOT);
+                    source.sendMessage(Component.text()
+                            .append(copyComponent(name == null ? uuidString : name, plugin.getMessageProvider(), source).color(NamedTextColor.YELLOW),
+                                    Component.text(" / ").color(NamedTextColor.GRAY),
+                                    copyComponent(uuidString, plugin.getMessageProvider(), source).color(NamedTextColor.YELLOW)));
+                });
+            }
+        }, service);
+    }
+
+    private void reload(CommandSource source) {
+        if (!source.hasPermission("punishment.command.reload")) {
+            source.sendMessage(plugin.getMessageProvider().provide("commands.general.no-permission", source, true).color(NamedTextColor.RED));
+            return;
+        }
+        plugin.reload().whenComplete((unused, throwable) -> {
+            if (throwable != null) {
+                throwable.printStackTrace();
+                source.sendMessage(plugin.getMessageProvider().internalError(source, true));
+                return;
+            }
+            source.sendMessage(plugin.getMessageProvider().provide("command.punishment.reload.success", source, true).color(NamedTextColor.GREEN));
+        });
+    }
+
+    private void metrics(CommandSource source, String prefix) {
+        if (!source.hasPermission("punishment.command.metrics")) {
+            source.sendMessage(plugin.getMessageProvider().provide("commands.general.no-permission", source, true).color(NamedTextColor.RED));
+            return;
+        }
+        var metrics = plugin.getMetrics();
+        source.sendMessage(plugin.getMessageProvider().provide("command.punishment.metrics.header", source, true).color(NamedTextColor.AQUA));
+        metrics.getTimers().forEach((name, timer) -> {
+            if (!name.startsWith(prefix) || timer.count() == 0) {
+                return;
+            }
+            source.sendMessage(Component.text(name + ": ").color(NamedTextColor.YELLOW).append(Component.text(String.format(Locale.ROOT,
+                    "%d, %.2f, %.2f, %.2f, %.2f", timer.count(), millis(timer.percentile(0.5, TimeUnit.MICROSECONDS)),
+                    millis(timer.percentile(0.99, TimeUnit.MICROSECONDS)), millis(timer.percentile(0.999, TimeUnit.MICROSECONDS)),
+                    millis(timer.max(TimeUnit.MICROSECONDS)))).color(NamedTextColor.GRAY)));
+        });
+        metrics.getCounters().forEach((name, counter) -> {
+            if (name.startsWith(prefix)) {
+                source.sendMessage(Component.text(name + ": ").color(NamedTextColor.YELLOW).append(Component.text(counter.count()).color(NamedTextColor.GRAY)));
+            }
+        });
+        metrics.getGauges().forEach((name, gauge) -> {
+            if (name.startsWith(prefix)) {
+                source.sendMessage(Component.text(name + ": ").color(NamedTextColor.YELLOW).append(Component.text(gauge.getAsLong()).color(NamedTextColor.GRAY)));
+            }
+        });
+    }
+
+    private void queries(CommandSource source) {
+        if (!source.hasPermission("punishment.command.metrics")) {
+            source.sendMessage(plugin.getMessageProvider().provide("commands.general.no-permission", source, true).color(NamedTextColor.RED));
+            return;
+        }
+        source.sendMessage(plugin.getMessageProvider().provide("command.punishment.queries.header", source, true,
+                Component.text(StatementStats.WINDOW)).color(NamedTextColor.AQUA));
+        for (StatementStats stats : plugin.getQueryExecutor().getStatistics().values()) {
+            long[] recent = stats.recentDurations();
+            source.sendMessage(Component.text(stats.getStatementId() + ": ").color(NamedTextColor.YELLOW).append(Component.text(String.format(Locale.ROOT,
+                    "%d, %d, %d, %.2f, %.2f, %.2f", stats.getExecutions(), stats.getSlowExecutions(), stats.getErrors(),
+                    millis(StatementStats.percentile(recent, 0.5, TimeUnit.MICROSECONDS)), millis(StatementStats.percentile(recent, 0.99, TimeUnit.MICROSECONDS)),
+                    millis(StatementStats.percentile(recent, 1, TimeUnit.MICROSECONDS)))).color(NamedTextColor.GRAY)));
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000D;
+    }
+
     @Override
     public CompletableFuture<List<String>> suggestAsync(Invocation invocation) {
-        if (invocation.arguments().length == 2 && invocation.arguments()[0].equalsIgnoreCase("playerinfo")) {
+        if (invocation.arguments().length == 2 && (invocation.arguments()[0].equalsIgnoreCase("playerinfo") || invocation.arguments()[0].equalsIgnoreCase("alts"))) {
             return Util.executeAsync(() -> {
                 Set<String> list = new HashSet<>();
-                try (Connection connection = dataSource.getConnection();
-                     PreparedStatement statement = connection.prepareStatement("SELECT name FROM velocity_punishment WHERE name LIKE ?")) {
-                    String suggestion = invocation.arguments().length == 1 ? "" : invocation.arguments()[1].toLowerCase();
-                    statement.setString(1, suggestion + "%");
-                    ResultSet rs = statement.executeQuery();
-                    while (rs.next()) {
-                        list.add(rs.getString(1));
-                    }
+                String suggestion = invocation.arguments().length == 1 ? "" : invocation.arguments()[1].toLowerCase();
+                try {
+                    plugin.getQueryExecutor().statement(SqlStatement.SELECT_NAMES).query(rs -> {
+                        while (rs.next()) {
+                            list.add(rs.getString(1));
+                        }
+                        return null;
+                    }, suggestion + "%");
                 } catch (SQLException e) {
                     e.printStackTrace();
                 }
-                list.addAll(Util.getPlayerNames(server.getAllPlayers()).stream().map(String::toLowerCase).toList());
+                for (String name : plugin.getPlayerNameIndex().findByPrefix(suggestion)) {
+                    list.add(name.toLowerCase(Locale.ROOT));
+                }
                 return ImmutableList.copyOf(list);
             }, service);
         }
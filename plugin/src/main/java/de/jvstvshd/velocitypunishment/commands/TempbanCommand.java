@@ -26,13 +26,14 @@ package de.jvstvshd.velocitypunishment.commands;
 
 import com.velocitypowered.api.command.CommandSource;
 import com.velocitypowered.api.command.SimpleCommand;
-import com.velocitypowered.api.proxy.ProxyServer;
 import de.jvstvshd.velocitypunishment.VelocityPunishmentPlugin;
+import de.jvstvshd.velocitypunishment.api.punishment.Ban;
 import de.jvstvshd.velocitypunishment.api.punishment.PunishmentDuration;
+import de.jvstvshd.velocitypunishment.api.punishment.TemporalPunishment;
 import de.jvstvshd.velocitypunishment.internal.PunishmentHelper;
+import de.jvstvshd.velocitypunishment.internal.ReasonTemplates;
 import de.jvstvshd.velocitypunishment.internal.Util;
 import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
 
@@ -45,12 +46,10 @@ import static de.jvstvshd.velocitypunishment.internal.Util.copyComponent;
 
 public class TempbanCommand implements SimpleCommand {
 
-    private final ProxyServer proxyServer;
     private final ExecutorService service;
     private final VelocityPunishmentPlugin plugin;
 
     public TempbanCommand(VelocityPunishmentPlugin plugin) {
-        this.proxyServer = plugin.getServer();
         this.service = plugin.getService();
         this.plugin = plugin;
     }
@@ -73,24 +72,51 @@ public class TempbanCommand implements SimpleCommand {
                 source.sendMessage(plugin.getMessageProvider().provide("commands.general.not-found", source, true, Component.text(invocation.arguments()[0]).color(NamedTextColor.YELLOW)).color(NamedTextColor.RED));
                 return;
             }
-            Optional<PunishmentDuration> optDuration = parser.parseDuration(1, invocation, plugin.getMessageProvider());
-            if (optDuration.isEmpty()) {
-                return;
+            Optional<ReasonTemplates.Template> template = Optional.empty();
+            PunishmentDuration duration;
+            if (ReasonTemplates.isTemplate(invocation.arguments()[1])) {
+                template = parser.parseTemplate(1, invocation, plugin.getReasonTemplates(), plugin.getMessageProvider());
+                if (template.isEmpty()) {
+                    return;
+                }
+                if (template.get().getDuration().isEmpty()) {
+                    source.sendMessage(plugin.getMessageProvider().provide("command.punishment.template-without-duration", source, true,
+                            Component.text(invocation.arguments()[1]).color(NamedTextColor.YELLOW)).color(NamedTextColor.RED));
+                    return;
+                }
+                duration = template.get().getDuration().get();
+            } else {
+                Optional<PunishmentDuration> optDuration = parser.parseDuration(1, invocation, plugin.getMessageProvider());
+                if (optDuration.isEmpty()) {
+                    return;
+                }
+                duration = optDuration.get();
+                if (parser.isTemplateReason(2, invocation)) {
+                    template = parser.parseTemplate(2, invocation, plugin.getReasonTemplates(), plugin.getMessageProvider());
+                    if (template.isEmpty()) {
+                        return;
+                    }
+                }
+            }
+            Ban punishment;
+            if (template.isPresent()) {
+                punishment = parser.createBan(plugin.getPunishmentManager(), uuid, template.get(), duration);
+            } else {
+                Component component = parser.parseComponent(2, invocation, Component.text("ban").color(NamedTextColor.DARK_RED));
+                punishment = plugin.getPunishmentManager().createBan(uuid, component, duration);
             }
-            PunishmentDuration duration = optDuration.get();
-            TextComponent component = parser.parseComponent(2, invocation, Component.text("ban").color(NamedTextColor.DARK_RED));
-            plugin.getPunishmentManager().createBan(uuid, component, duration).punish().whenComplete((ban, t) -> {
+            punishment.punish().whenComplete((ban, t) -> {
                 if (t != null) {
-                    invocation.source().sendMessage(plugin.getMessageProvider().internalError(source, true));
-                    t.printStackTrace();
+                    Util.sendPunishmentError(source, t, plugin);
                     return;
                 }
-                String until = duration.expiration().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss"));
+                PunishmentDuration imposed = ban instanceof TemporalPunishment temporal ? temporal.getDuration() : duration;
+                String until = imposed.expiration().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss"));
                 String uuidString = uuid.toString().toLowerCase();
                 source.sendMessage(plugin.getMessageProvider().provide("command.tempban.success", source, true,
                         copyComponent(invocation.arguments()[0], plugin.getMessageProvider(), source).color(NamedTextColor.YELLOW).decorate(TextDecoration.BOLD),
                         copyComponent(uuidString, plugin.getMessageProvider(), source).color(NamedTextColor.RED).decorate(TextDecoration.BOLD),
-                        component,
+                        ban.getReason(),
                         Component.text(until).color(NamedTextColor.GREEN)).color(NamedTextColor.GREEN));
                 source.sendMessage(plugin.getMessageProvider().provide("commands.general.punishment.id", source, true, Component.text(ban.getPunishmentUuid().toString().toLowerCase()).color(NamedTextColor.YELLOW)));
             });
@@ -99,7 +125,7 @@ public class TempbanCommand implements SimpleCommand {
 
     @Override
     public List<String> suggest(Invocation invocation) {
-        return Util.getPlayerNames(invocation, proxyServer);
+        return Util.getPlayerNames(invocation, plugin.getPlayerNameIndex());
     }
 
     @Override
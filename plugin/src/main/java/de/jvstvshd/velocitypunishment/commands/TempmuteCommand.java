@@ -26,14 +26,15 @@ package de.jvstvshd.velocitypunishment.commands;
 
 import com.velocitypowered.api.command.CommandSource;
 import com.velocitypowered.api.command.SimpleCommand;
-import com.velocitypowered.api.proxy.ProxyServer;
 import de.jvstvshd.velocitypunishment.VelocityPunishmentPlugin;
+import de.jvstvshd.velocitypunishment.api.punishment.Mute;
 import de.jvstvshd.velocitypunishment.api.punishment.PunishmentDuration;
+import de.jvstvshd.velocitypunishment.api.punishment.TemporalPunishment;
 import de.jvstvshd.velocitypunishment.internal.PunishmentHelper;
+import de.jvstvshd.velocitypunishment.internal.ReasonTemplates;
 import de.jvstvshd.velocitypunishment.internal.Util;
 import de.jvstvshd.velocitypunishment.listener.ChatListener;
 import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
 
@@ -48,13 +49,11 @@ import static de.jvstvshd.velocitypunishment.internal.Util.copyComponent;
 
 public class TempmuteCommand implements SimpleCommand {
 
-    private final ProxyServer proxyServer;
     private final ExecutorService service;
     private final VelocityPunishmentPlugin plugin;
     private final ChatListener chatListener;
 
     public TempmuteCommand(VelocityPunishmentPlugin plugin, ChatListener chatListener) {
-        this.proxyServer = plugin.getServer();
         this.service = plugin.getService();
         this.plugin = plugin;
         this.chatListener = chatListener;
@@ -78,24 +77,51 @@ public class TempmuteCommand implements SimpleCommand {
                 source.sendMessage(plugin.getMessageProvider().provide("commands.general.not-found", source, true, Component.text(invocation.arguments()[0]).color(NamedTextColor.YELLOW)).color(NamedTextColor.RED));
                 return;
             }
-            Optional<PunishmentDuration> optDuration = parser.parseDuration(1, invocation, plugin.getMessageProvider());
-            if (optDuration.isEmpty()) {
-                return;
+            Optional<ReasonTemplates.Template> template = Optional.empty();
+            PunishmentDuration duration;
+            if (ReasonTemplates.isTemplate(invocation.arguments()[1])) {
+                template = parser.parseTemplate(1, invocation, plugin.getReasonTemplates(), plugin.getMessageProvider());
+                if (template.isEmpty()) {
+                    return;
+                }
+                if (template.get().getDuration().isEmpty()) {
+                    source.sendMessage(plugin.getMessageProvider().provide("command.punishment.template-without-duration", source, true,
+                            Component.text(invocation.arguments()[1]).color(NamedTextColor.YELLOW)).color(NamedTextColor.RED));
+                    return;
+                }
+                duration = template.get().getDuration().get();
+            } else {
+                Optional<PunishmentDuration> optDuration = parser.parseDuration(1, invocation, plugin.getMessageProvider());
+                if (optDuration.isEmpty()) {
+                    return;
+                }
+                duration = optDuration.get();
+                if (parser.isTemplateReason(2, invocation)) {
+                    template = parser.parseTemplate(2, invocation, plugin.getReasonTemplates(), plugin.getMessageProvider());
+                    if (template.isEmpty()) {
+                        return;
+                    }
+                }
+            }
+            Mute punishment;
+            if (template.isPresent()) {
+                punishment = parser.createMute(plugin.getPunishmentManager(), uuid, template.get(), duration);
+            } else {
+                Component component = parser.parseComponent(2, invocation, Component.text("mute").color(NamedTextColor.DARK_RED));
+                punishment = plugin.getPunishmentManager().createMute(uuid, component, duration);
             }
-            PunishmentDuration duration = optDuration.get();
-            TextComponent component = parser.parseComponent(2, invocation, Component.text("mute").color(NamedTextColor.DARK_RED));
-            plugin.getPunishmentManager().createMute(uuid, component, duration).punish().whenComplete((mute, t) -> {
+            punishment.punish().whenComplete((mute, t) -> {
                 if (t != null) {
-                    invocation.source().sendMessage(plugin.getMessageProvider().internalError(source, true));
-                    t.printStackTrace();
+                    Util.sendPunishmentError(source, t, plugin);
                     return;
                 }
-                String until = duration.expiration().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss"));
+                PunishmentDuration imposed = mute instanceof TemporalPunishment temporal ? temporal.getDuration() : duration;
+                String until = imposed.expiration().format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm:ss"));
                 String uuidString = uuid.toString().toLowerCase();
                 source.sendMessage(plugin.getMessageProvider().provide("command.tempmute.success", source, true,
                         copyComponent(invocation.arguments()[0], plugin.getMessageProvider(), source).color(NamedTextColor.YELLOW).decorate(TextDecoration.BOLD),
                         copyComponent(uuidString, plugin.getMessageProvider(), source).color(NamedTextColor.RED).decorate(TextDecoration.BOLD),
-                        component,
+                        mute.getReason(),
                         Component.text(until).color(NamedTextColor.GREEN)));
                 source.sendMessage(plugin.getMessageProvider().provide("commands.general.punishment.id", source, true, copyComponent(mute.getPunishmentUuid().toString().toLowerCase(), plugin.getMessageProvider(), source).color(NamedTextColor.YELLOW)));
                 try {
@@ -109,7 +135,7 @@ public class TempmuteCommand implements SimpleCommand {
 
     @Override
     public List<String> suggest(Invocation invocation) {
-        return Util.getPlayerNames(invocation, proxyServer);
+        return Util.getPlayerNames(invocation, plugin.getPlayerNameIndex());
     }
 
     @Override
@@ -31,16 +31,13 @@ import de.jvstvshd.velocitypunishment.api.punishment.Punishment;
 import de.jvstvshd.velocitypunishment.api.punishment.StandardPunishmentType;
 import de.jvstvshd.velocitypunishment.internal.PunishmentHelper;
 import de.jvstvshd.velocitypunishment.internal.Util;
+import de.jvstvshd.velocitypunishment.sql.SqlStatement;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.event.ClickEvent;
 import net.kyori.adventure.text.event.HoverEvent;
 import net.kyori.adventure.text.event.HoverEventSource;
 import net.kyori.adventure.text.format.NamedTextColor;
 
-import javax.sql.DataSource;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
@@ -51,11 +48,9 @@ import java.util.concurrent.ExecutorService;
 public class UnbanCommand implements SimpleCommand {
 
     private final ExecutorService service;
-    private final DataSource dataSource;
     private final VelocityPunishmentPlugin plugin;
 
     public UnbanCommand(VelocityPunishmentPlugin plugin) {
-        this.dataSource = plugin.getDataSource();
         this.service = plugin.getService();
         this.plugin = plugin;
     }
@@ -115,13 +110,13 @@ public class UnbanCommand implements SimpleCommand {
             if (invocation.arguments()[0].length() > 1) {
                 return Util.executeAsync(() -> {
                     List<String> list = new ArrayList<>();
-                    try (Connection connection = dataSource.getConnection();
-                         PreparedStatement statement = connection.prepareStatement("SELECT name FROM velocity_punishment WHERE name LIKE ?")) {
-                        statement.setString(1, invocation.arguments()[0].toLowerCase() + "%");
-                        ResultSet rs = statement.executeQuery();
-                        while (rs.next()) {
-                            list.add(rs.getString(1));
-                        }
+                    try {
+                        plugin.getQueryExecutor().statement(SqlStatement.SELECT_NAMES).query(rs -> {
+                            while (rs.next()) {
+                                list.add(rs.getString(1));
+                            }
+                            return null;
+                        }, invocation.arguments()[0].toLowerCase() + "%");
                     } catch (SQLException e) {
                         e.printStackTrace();
                     }
@@ -0,0 +1,75 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.commands;
+
+import com.velocitypowered.api.command.CommandSource;
+import com.velocitypowered.api.command.SimpleCommand;
+import de.jvstvshd.velocitypunishment.VelocityPunishmentPlugin;
+import de.jvstvshd.velocitypunishment.internal.AddressRange;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+
+import java.util.Optional;
+
+public class UnbanIpCommand implements SimpleCommand {
+
+    private final VelocityPunishmentPlugin plugin;
+
+    public UnbanIpCommand(VelocityPunishmentPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void execute(Invocation invocation) {
+        CommandSource source = invocation.source();
+        if (invocation.arguments().length < 1) {
+            source.sendMessage(plugin.getMessageProvider().provide("command.unbanip.usage", source, true).color(NamedTextColor.RED));
+            return;
+        }
+        Optional<AddressRange> range = BanIpCommand.parseRange(invocation.arguments()[0], plugin, source);
+        if (range.isEmpty()) {
+            return;
+        }
+        plugin.getAddressBanManager().unban(range.get()).whenComplete((unbanned, t) -> {
+            if (t != null) {
+                source.sendMessage(plugin.getMessageProvider().internalError(source, true));
+                t.printStackTrace();
+                return;
+            }
+            if (!unbanned) {
+                source.sendMessage(plugin.getMessageProvider().provide("command.unbanip.not-banned", source, true,
+                        Component.text(range.get().toString()).color(NamedTextColor.YELLOW)).color(NamedTextColor.RED));
+                return;
+            }
+            source.sendMessage(plugin.getMessageProvider().provide("command.unbanip.success", source, true,
+                    Component.text(range.get().toString()).color(NamedTextColor.YELLOW)).color(NamedTextColor.GREEN));
+        });
+    }
+
+    @Override
+    public boolean hasPermission(Invocation invocation) {
+        return invocation.source().hasPermission("punishment.command.unbanip");
+    }
+}
@@ -27,9 +27,11 @@ package de.jvstvshd.velocitypunishment.commands;
 import com.velocitypowered.api.command.SimpleCommand;
 import de.jvstvshd.velocitypunishment.VelocityPunishmentPlugin;
 import de.jvstvshd.velocitypunishment.internal.Util;
+import de.jvstvshd.velocitypunishment.sql.SqlStatement;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 
+import java.sql.ResultSet;
 import java.sql.SQLException;
 
 public class WhitelistCommand implements SimpleCommand {
@@ -50,11 +52,10 @@ public class WhitelistCommand implements SimpleCommand {
         if (invocation.arguments().length == 1) {
             plugin.getPlayerResolver().getOrQueryPlayerUuid(invocation.arguments()[0], plugin.getService()).whenCompleteAsync((uuid, throwable) -> {
                 if (Util.sendErrorMessageIfErrorOccurred(invocation, source, uuid, throwable, plugin)) return;
-                try (var connection = plugin.getDataSource().getConnection();
-                     var statement = connection.prepareStatement("SELECT * FROM velocity_punishment_whitelist WHERE uuid = ?;")) {
-                    statement.setString(1, Util.trimUuid(uuid));
-                    var rs = statement.executeQuery();
-                    var whitelisted = rs.next() ? plugin.getMessageProvider().provide("whitelist.status.whitelisted", source) :
+                try {
+                    var found = plugin.getQueryExecutor().statement(SqlStatement.SELECT_WHITELISTED)
+                            .concerning(uuid, null).query(ResultSet::next, Util.trimUuid(uuid));
+                    var whitelisted = found ? plugin.getMessageProvider().provide("whitelist.status.whitelisted", source) :
                             plugin.getMessageProvider().provide("whitelist.status.disallowed", source);
                     source.sendMessage(plugin.getMessageProvider().provide("command.whitelist.status", source, true, Component.text(invocation.arguments()[0]).color(NamedTextColor.YELLOW), whitelisted.color(NamedTextColor.YELLOW)));
                 } catch (SQLException e) {
@@ -68,11 +69,14 @@ public class WhitelistCommand implements SimpleCommand {
             case "add", "remove" ->
                     plugin.getPlayerResolver().getOrQueryPlayerUuid(invocation.arguments()[0], plugin.getService()).whenCompleteAsync((uuid, throwable) -> {
                         if (Util.sendErrorMessageIfErrorOccurred(invocation, source, uuid, throwable, plugin)) return;
-                        try (var connection = plugin.getDataSource().getConnection();
-                             var statement = connection.prepareStatement(option.equals("add") ? "INSERT INTO velocity_punishment_whitelist (uuid) VALUES (?);" :
-                                     "DELETE FROM velocity_punishment_whitelist WHERE uuid = ?;")) {
-                            statement.setString(1, Util.trimUuid(uuid));
-                            statement.executeUpdate();
+                        try {
+                            if (option.equals("add")) {
+                                plugin.getQueryExecutor().statement(SqlStatement.INSERT_WHITELISTED)
+                                        .concerning(uuid, null).update(Util.trimUuid(uuid));
+                            } else {
+                                plugin.getQueryExecutor().statement(SqlStatement.DELETE_WHITELISTED)
+                                        .concerning(uuid, null).update(Util.trimUuid(uuid));
+                            }
                             source.sendMessage(plugin.getMessageProvider().provide("command.whitelist.success", source, true));
                             if (option.equals("remove")) {
                                 plugin.getServer().getPlayer(uuid).ifPresent(player -> player.disconnect(Component.text("You have been blacklisted.").color(NamedTextColor.DARK_RED)));
@@ -0,0 +1,66 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.config;
+
+@SuppressWarnings({"FieldCanBeLocal", "FieldMayBeFinal"})
+public class AltDetectionData {
+    private boolean enabled = true;
+    private int historyDays = 30;
+    private Action action = Action.NOTIFY;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return how many days of login history are kept in memory and in the database to link accounts
+     */
+    public int getHistoryDays() {
+        return historyDays;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    /**
+     * What happens if a player logs in from an address a banned account has used before.
+     */
+    public enum Action {
+        /**
+         * Accounts are only linked for {@code /punishment alts}.
+         */
+        NONE,
+        /**
+         * Online players with the permission {@code punishment.alts.notify} are notified.
+         */
+        NOTIFY,
+        /**
+         * The player is banned with the reason and until the end of the ban of the linked account. Players with the
+         * permission {@code punishment.alts.notify} are notified as well.
+         */
+        BAN
+    }
+}
@@ -24,7 +24,9 @@
 
 package de.jvstvshd.velocitypunishment.config;
 
+import java.util.LinkedHashMap;
 import java.util.Locale;
+import java.util.Map;
 
 @SuppressWarnings({"FieldMayBeFinal", "FieldCanBeLocal"})
 public class ConfigData {
@@ -34,6 +36,16 @@ public class ConfigData {
 
     private boolean whitelistActivated = false;
 
+    private boolean autoReload = true;
+
+    private long prePunishmentTimeoutMillis = 500;
+
+    private MetricsData metricsData = new MetricsData();
+
+    private AltDetectionData altDetectionData = new AltDetectionData();
+
+    private Map<String, ReasonTemplateData> reasonTemplates = new LinkedHashMap<>(Map.of("hacking", new ReasonTemplateData("&cHacking", "30d")));
+
     public DataBaseData getDataBaseData() {
         return dataBaseData;
     }
@@ -45,4 +57,24 @@ public class ConfigData {
     public boolean isWhitelistActivated() {
         return whitelistActivated;
     }
+
+    public boolean isAutoReload() {
+        return autoReload;
+    }
+
+    public long getPrePunishmentTimeoutMillis() {
+        return prePunishmentTimeoutMillis;
+    }
+
+    public MetricsData getMetricsData() {
+        return metricsData;
+    }
+
+    public AltDetectionData getAltDetectionData() {
+        return altDetectionData;
+    }
+
+    public Map<String, ReasonTemplateData> getReasonTemplates() {
+        return reasonTemplates;
+    }
 }
@@ -35,7 +35,7 @@ public class ConfigurationManager {
 
     private final Path path;
     private final ObjectMapper objectMapper;
-    private ConfigData configData;
+    private volatile ConfigData configData;
 
     public ConfigurationManager(Path path) {
         this.path = path;
@@ -68,6 +68,10 @@ public class ConfigurationManager {
         objectMapper.writerWithDefaultPrettyPrinter().writeValues(path.toFile()).write(configData);
     }
 
+    public Path getPath() {
+        return path;
+    }
+
     public ConfigData getConfiguration() {
         return configData;
     }
@@ -0,0 +1,120 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.config;
+
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watches the configuration file and the translation directory and invokes a reload callback when one of them changes.
+ * Changes are debounced, so that editors which write a file in several steps only trigger one reload.
+ */
+public class ConfigurationWatcher implements AutoCloseable {
+
+    private static final long DEBOUNCE_MILLIS = 500;
+
+    private final Path configFile;
+    private final Path translationDirectory;
+    private final Logger logger;
+    private final Runnable reload;
+    private WatchService watchService;
+    private Thread thread;
+
+    public ConfigurationWatcher(Path configFile, Path translationDirectory, Logger logger, Runnable reload) {
+        this.configFile = configFile.toAbsolutePath();
+        this.translationDirectory = translationDirectory.toAbsolutePath();
+        this.logger = logger;
+        this.reload = reload;
+    }
+
+    public void start() throws IOException {
+        Files.createDirectories(translationDirectory);
+        watchService = FileSystems.getDefault().newWatchService();
+        configFile.getParent().register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        translationDirectory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        thread = new Thread(this::watch, "velocity-punishment-config-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void watch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                if (!relevant(watchService.take())) {
+                    continue;
+                }
+                WatchKey next;
+                while ((next = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    relevant(next);
+                }
+                logger.info("Configuration or translations changed, reloading...");
+                try {
+                    reload.run();
+                } catch (Exception e) {
+                    logger.error("Could not reload configuration", e);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+        }
+    }
+
+    private boolean relevant(WatchKey key) {
+        var directory = (Path) key.watchable();
+        var relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                relevant = true;
+                continue;
+            }
+            var path = directory.resolve((Path) event.context());
+            if (path.equals(configFile) || (directory.equals(translationDirectory) && path.getFileName().toString().endsWith(".properties"))) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (thread != null) {
+            thread.interrupt();
+        }
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+}
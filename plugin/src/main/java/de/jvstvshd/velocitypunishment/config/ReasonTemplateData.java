@@ -0,0 +1,53 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.config;
+
+@SuppressWarnings({"FieldCanBeLocal", "FieldMayBeFinal"})
+public class ReasonTemplateData {
+    private String reason = "";
+    private String duration = null;
+
+    public ReasonTemplateData() {
+    }
+
+    public ReasonTemplateData(String reason, String duration) {
+        this.reason = reason;
+        this.duration = duration;
+    }
+
+    /**
+     * @return the reason, formatted with '&amp;' color codes
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * @return the duration used by /tempban and /tempmute if the template replaces the duration argument, or null
+     */
+    public String getDuration() {
+        return duration;
+    }
+}
@@ -26,21 +26,27 @@ package de.jvstvshd.velocitypunishment.impl;
 
 
 import de.jvstvshd.velocitypunishment.api.message.MessageProvider;
+import de.jvstvshd.velocitypunishment.api.metrics.PunishmentMetrics;
 import de.jvstvshd.velocitypunishment.api.punishment.Punishment;
 import de.jvstvshd.velocitypunishment.api.punishment.PunishmentManager;
 import de.jvstvshd.velocitypunishment.api.punishment.util.PlayerResolver;
+import de.jvstvshd.velocitypunishment.jfr.PunishmentOperationEvent;
+import de.jvstvshd.velocitypunishment.metrics.DefaultMetrics;
+import de.jvstvshd.velocitypunishment.sql.Dialect;
+import de.jvstvshd.velocitypunishment.sql.QueryExecutor;
 import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
 import java.util.UUID;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public abstract class AbstractPunishment implements Punishment {
 
-    private final Component reason;
+    private final StoredReason reason;
     private final DataSource dataSource;
     private final ExecutorService service;
     private final UUID playerUuid;
@@ -49,18 +55,23 @@ public abstract class AbstractPunishment implements Punishment {
     private final PlayerResolver playerResolver;
     private final MessageProvider messageProvider;
 
-    protected final static String APPLY_PUNISHMENT = "INSERT INTO velocity_punishment" +
-            " (uuid, name, type, expiration, reason, punishment_id) VALUES (?, ?, ?, ?, ?, ?)";
-    protected final static String APPLY_ANNUL = "DELETE FROM velocity_punishment WHERE punishment_id = ?";
-    @SuppressWarnings("GrazieInspection")
-    protected final static String APPLY_CHANGE = "UPDATE velocity_punishment SET reason = ?, expiration = ?, permanent = ? WHERE punishment_id = ?";
+    /**
+     * Receives the metrics of punishments not created by a {@link DefaultPunishmentManager}. Their slow query log is
+     * disabled.
+     */
+    private static final PunishmentMetrics DETACHED_METRICS = new DefaultMetrics();
     private boolean validity;
+    private QueryExecutor detachedQueryExecutor;
 
     public AbstractPunishment(UUID playerUuid, Component reason, DataSource dataSource, PlayerResolver playerResolver, PunishmentManager punishmentManager, ExecutorService service, MessageProvider messageProvider) {
         this(playerUuid, reason, dataSource, service, punishmentManager, UUID.randomUUID(), playerResolver, messageProvider);
     }
 
     public AbstractPunishment(UUID playerUuid, Component reason, DataSource dataSource, ExecutorService service, PunishmentManager punishmentManager, UUID punishmentUuid, PlayerResolver playerResolver, MessageProvider messageProvider) {
+        this(playerUuid, StoredReason.of(reason), dataSource, service, punishmentManager, punishmentUuid, playerResolver, messageProvider);
+    }
+
+    public AbstractPunishment(UUID playerUuid, StoredReason reason, DataSource dataSource, ExecutorService service, PunishmentManager punishmentManager, UUID punishmentUuid, PlayerResolver playerResolver, MessageProvider messageProvider) {
         this.reason = reason;
         this.dataSource = dataSource;
         this.service = service;
@@ -77,9 +88,34 @@ public abstract class AbstractPunishment implements Punishment {
     }
 
     public Component getReason() {
+        return reason.component();
+    }
+
+    /**
+     * @return the reason in the form it is stored in, or null if only the id of its template is stored
+     */
+    protected String getStoredReason() {
+        return reason.serialized();
+    }
+
+    /**
+     * @return the plain text of the reason as stored for searching, or null if only the id of its template is stored
+     */
+    protected String getReasonText() {
+        return reason.plainText();
+    }
+
+    protected StoredReason storedReason() {
         return reason;
     }
 
+    /**
+     * @return the id of the reason template of this punishment or null, if it has a custom reason
+     */
+    public String getReasonTemplate() {
+        return reason.templateId();
+    }
+
     public ExecutorService getService() {
         return service;
     }
@@ -96,6 +132,64 @@ public abstract class AbstractPunishment implements Punishment {
         return future;
     }
 
+    /**
+     * Executes {@code task} like {@link #executeAsync(Callable, ExecutorService)}, records the time until the
+     * returned future completes in the timer {@code punishment.<operation>} and emits a {@link PunishmentOperationEvent}.
+     */
+    protected <T> CompletableFuture<T> executeAsync(String operation, Callable<T> task, ExecutorService executorService) {
+        var timer = getMetrics().timer("punishment." + operation);
+        var event = new PunishmentOperationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        return executeAsync(task, executorService).whenComplete((result, throwable) -> {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (event.shouldCommit()) {
+                event.operation = operation;
+                event.player = playerUuid.toString();
+                event.punishmentId = punishmentUuid.toString();
+                event.punishmentType = getType().getName();
+                event.succeeded = throwable == null;
+                event.commit();
+            }
+        });
+    }
+
+    /**
+     * Fires {@code event} without waiting for its listeners, so slow listeners cannot delay punishments.
+     *
+     * @param event the event
+     */
+    protected void fireEvent(Object event) {
+        var server = punishmentManager.getServer();
+        if (server != null) {
+            server.getEventManager().fireAndForget(event);
+        }
+    }
+
+    protected PunishmentMetrics getMetrics() {
+        if (punishmentManager instanceof DefaultPunishmentManager defaultPunishmentManager) {
+            return defaultPunishmentManager.getMetrics();
+        }
+        return DETACHED_METRICS;
+    }
+
+    /**
+     * @return the metrics of all punishments not created by a {@link DefaultPunishmentManager}
+     */
+    public static PunishmentMetrics getDetachedMetrics() {
+        return DETACHED_METRICS;
+    }
+
+    protected synchronized QueryExecutor getQueryExecutor() {
+        if (punishmentManager instanceof DefaultPunishmentManager defaultPunishmentManager) {
+            return defaultPunishmentManager.getQueryExecutor();
+        }
+        if (detachedQueryExecutor == null) {
+            detachedQueryExecutor = new QueryExecutor(dataSource, Dialect.MARIADB, DETACHED_METRICS, LoggerFactory.getLogger(AbstractPunishment.class), () -> -1);
+        }
+        return detachedQueryExecutor;
+    }
+
     public UUID getPlayerUuid() {
         return playerUuid;
     }
@@ -109,7 +203,7 @@ public abstract class AbstractPunishment implements Punishment {
     }
 
     protected String convertReason(Component component) {
-        return LegacyComponentSerializer.legacy(LegacyComponentSerializer.SECTION_CHAR).serialize(component);
+        return StoredReason.serialize(component);
     }
 
     public boolean isValid() {
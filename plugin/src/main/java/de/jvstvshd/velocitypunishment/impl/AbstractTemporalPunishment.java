@@ -24,20 +24,44 @@
 
 package de.jvstvshd.velocitypunishment.impl;
 
+import com.velocitypowered.api.command.CommandSource;
+import de.jvstvshd.velocitypunishment.api.event.PrePunishmentEvent;
+import de.jvstvshd.velocitypunishment.api.event.PunishmentVetoedException;
 import de.jvstvshd.velocitypunishment.api.message.MessageProvider;
+import de.jvstvshd.velocitypunishment.api.punishment.Punishment;
 import de.jvstvshd.velocitypunishment.api.punishment.PunishmentDuration;
 import de.jvstvshd.velocitypunishment.api.punishment.PunishmentManager;
 import de.jvstvshd.velocitypunishment.api.punishment.TemporalPunishment;
 import de.jvstvshd.velocitypunishment.api.punishment.util.PlayerResolver;
 import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public abstract class AbstractTemporalPunishment extends AbstractPunishment implements TemporalPunishment {
 
-    private final PunishmentDuration duration;
+    private static final DateTimeFormatter EXPIRATION_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final Component INVALID = Component.text("INVALID").decorate(TextDecoration.BOLD).color(NamedTextColor.DARK_RED);
+    /**
+     * The time listeners of {@link PrePunishmentEvent} get if this punishment was not created by a
+     * {@link DefaultPunishmentManager}.
+     */
+    private static final long DEFAULT_PRE_PUNISHMENT_TIMEOUT_MILLIS = 500;
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractTemporalPunishment.class);
+
+    private volatile PunishmentDuration duration;
+    private final Map<Locale, FullReason> fullReasons = new ConcurrentHashMap<>();
 
     public AbstractTemporalPunishment(UUID playerUuid, Component reason, DataSource dataSource, PlayerResolver playerResolver, PunishmentManager punishmentManager, ExecutorService service, PunishmentDuration duration, MessageProvider messageProvider) {
         super(playerUuid, reason, dataSource, playerResolver, punishmentManager, service, messageProvider);
@@ -49,10 +73,122 @@ public abstract class AbstractTemporalPunishment extends AbstractPunishment impl
         this.duration = duration;
     }
 
+    public AbstractTemporalPunishment(UUID playerUuid, StoredReason reason, DataSource dataSource, ExecutorService service, PunishmentManager punishmentManager, UUID punishmentUuid, PlayerResolver playerResolver, PunishmentDuration duration, MessageProvider messageProvider) {
+        super(playerUuid, reason, dataSource, service, punishmentManager, punishmentUuid, playerResolver, messageProvider);
+        this.duration = duration;
+    }
+
     public PunishmentDuration getDuration() {
         return duration;
     }
 
+    /**
+     * Fixes the expiration of a relative duration to the current time plus its length. Called when the punishment is
+     * imposed, so the stored and the in-memory expiration are the same.
+     */
+    protected void fixDuration() {
+        duration = duration.absolute();
+    }
+
+    /**
+     * Imposes this punishment: fixes its duration, lets the listeners of {@link PrePunishmentEvent} deny or change it
+     * and stores the resulting punishment with {@link #persist()}. A denied punishment completes exceptionally with a
+     * {@link PunishmentVetoedException}.
+     */
+    @Override
+    public CompletableFuture<Punishment> punish() {
+        checkValidity();
+        fixDuration();
+        return firePrePunishmentEvent().thenCompose(result -> {
+            if (!result.isAllowed()) {
+                return CompletableFuture.<Punishment>failedFuture(new PunishmentVetoedException(this));
+            }
+            if (!result.isModified()) {
+                return persist();
+            }
+            StoredReason reason = result.getReason().map(StoredReason::of).orElse(storedReason());
+            AbstractTemporalPunishment modified = withChanges(result.getDuration().orElse(getDuration()), reason);
+            modified.checkValidity();
+            modified.fixDuration();
+            return modified.persist();
+        });
+    }
+
+    /**
+     * Fires a {@link PrePunishmentEvent} and waits for its listeners for at most the configured time. If they take
+     * longer, the punishment is allowed unchanged, so a slow listener cannot hold up enforcement.
+     */
+    private CompletableFuture<PrePunishmentEvent.PunishmentResult> firePrePunishmentEvent() {
+        var server = getPunishmentManager().getServer();
+        if (server == null) {
+            return CompletableFuture.completedFuture(PrePunishmentEvent.PunishmentResult.allowed());
+        }
+        long timeout = getPunishmentManager() instanceof DefaultPunishmentManager defaultPunishmentManager ?
+                defaultPunishmentManager.getPrePunishmentTimeoutMillis() : DEFAULT_PRE_PUNISHMENT_TIMEOUT_MILLIS;
+        var timer = getMetrics().timer("punishment.pre-punish");
+        long start = System.nanoTime();
+        return server.getEventManager().fire(new PrePunishmentEvent(this, getPlayerUuid(), getDuration(), getReason()))
+                .thenApply(PrePunishmentEvent::getResult)
+                .completeOnTimeout(null, timeout, TimeUnit.MILLISECONDS)
+                .handle((result, throwable) -> {
+                    timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    if (throwable != null) {
+                        LOGGER.error("A listener of PrePunishmentEvent failed, imposing punishment " + getPunishmentUuid() + " unchanged", throwable);
+                        return PrePunishmentEvent.PunishmentResult.allowed();
+                    }
+                    if (result == null) {
+                        getMetrics().counter("punishment.pre-punish.timeouts").increment();
+                        LOGGER.warn("Listeners of PrePunishmentEvent did not finish within {} ms, imposing punishment {} unchanged", timeout, getPunishmentUuid());
+                        return PrePunishmentEvent.PunishmentResult.allowed();
+                    }
+                    return result;
+                });
+    }
+
+    /**
+     * @return a copy of this punishment with the same id and the given duration and reason
+     */
+    protected abstract AbstractTemporalPunishment withChanges(PunishmentDuration duration, StoredReason reason);
+
+    /**
+     * Stores this punishment once the listeners of {@link PrePunishmentEvent} allowed it.
+     *
+     * @return a {@link CompletableFuture} containing this punishment
+     */
+    protected abstract CompletableFuture<Punishment> persist();
+
+    /**
+     * Creates the full reason of this punishment for the given source. The rendered component is cached per locale; the
+     * remaining duration of temporary punishments is only refreshed once per second, so a player who repeatedly triggers
+     * this punishment (e.g. by chatting while muted) is mostly answered with the cached component.
+     *
+     * @param source       the source the reason will be sent to
+     * @param permanentKey the message key used if this punishment is permanent
+     * @param temporaryKey the message key used if this punishment is temporary
+     * @return the full reason
+     */
+    protected Component createFullReason(CommandSource source, String permanentKey, String temporaryKey) {
+        if (!isValid()) {
+            return INVALID;
+        }
+        var locale = getMessageProvider().locale(source);
+        var permanent = isPermanent();
+        var second = System.currentTimeMillis() / 1000;
+        var cached = fullReasons.get(locale);
+        if (cached != null && (permanent || cached.second() == second)) {
+            return cached.component();
+        }
+        Component component;
+        if (permanent) {
+            component = getMessageProvider().provide(permanentKey, source, true, getReason());
+        } else {
+            var until = Component.text(getDuration().expiration().format(EXPIRATION_FORMATTER)).color(NamedTextColor.YELLOW);
+            component = getMessageProvider().provide(temporaryKey, source, true, Component.text(getDuration().getRemainingDuration()).color(NamedTextColor.YELLOW), getReason(), until);
+        }
+        fullReasons.put(locale, new FullReason(second, component));
+        return component;
+    }
+
     @Override
     public String toString() {
         return "AbstractTemporalPunishment{" +
@@ -71,4 +207,7 @@ public abstract class AbstractTemporalPunishment extends AbstractPunishment impl
             throw new IllegalStateException("punishment is invalid (probably isOngoing returned false)");
         }
     }
+
+    private record FullReason(long second, Component component) {
+    }
 }
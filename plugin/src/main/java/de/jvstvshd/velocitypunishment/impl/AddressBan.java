@@ -0,0 +1,103 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.impl;
+
+import com.velocitypowered.api.command.CommandSource;
+import de.jvstvshd.velocitypunishment.api.message.MessageProvider;
+import de.jvstvshd.velocitypunishment.api.punishment.PunishmentDuration;
+import de.jvstvshd.velocitypunishment.internal.AddressRange;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+/**
+ * A ban of an IPv4 or IPv6 network. Players connecting from an address inside the network are denied regardless of
+ * their account.
+ */
+public final class AddressBan {
+
+    private static final DateTimeFormatter EXPIRATION_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final AddressRange range;
+    private final StoredReason reason;
+    private final PunishmentDuration duration;
+    private final UUID punishmentUuid;
+
+    public AddressBan(AddressRange range, StoredReason reason, PunishmentDuration duration, UUID punishmentUuid) {
+        this.range = range;
+        this.reason = reason;
+        this.duration = duration;
+        this.punishmentUuid = punishmentUuid;
+    }
+
+    public AddressRange getRange() {
+        return range;
+    }
+
+    public Component getReason() {
+        return reason.component();
+    }
+
+    StoredReason getStoredReason() {
+        return reason;
+    }
+
+    public PunishmentDuration getDuration() {
+        return duration;
+    }
+
+    public UUID getPunishmentUuid() {
+        return punishmentUuid;
+    }
+
+    public boolean isOngoing() {
+        return !duration.isExpired();
+    }
+
+    /**
+     * @param source   the player the reason is shown to
+     * @param provider the message provider
+     * @return the message shown to players being denied because of this ban, the same as for bans of their account
+     */
+    public Component createFullReason(CommandSource source, MessageProvider provider) {
+        if (duration.isPermanent()) {
+            return provider.provide("punishment.ban.permanent.full-reason", source, true, getReason());
+        }
+        var until = Component.text(duration.expiration().format(EXPIRATION_FORMATTER)).color(NamedTextColor.YELLOW);
+        return provider.provide("punishment.ban.temp.full-reason", source, true, Component.text(duration.getRemainingDuration()).color(NamedTextColor.YELLOW), getReason(), until);
+    }
+
+    @Override
+    public String toString() {
+        return "AddressBan{" +
+                "range=" + range +
+                ", reason=" + reason +
+                ", duration=" + duration +
+                ", punishmentUuid=" + punishmentUuid +
+                '}';
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.impl;
+
+import com.velocitypowered.api.proxy.Player;
+import de.jvstvshd.velocitypunishment.VelocityPunishmentPlugin;
+import de.jvstvshd.velocitypunishment.api.punishment.PunishmentDuration;
+import de.jvstvshd.velocitypunishment.internal.AddressRange;
+import de.jvstvshd.velocitypunishment.internal.AddressTrie;
+import de.jvstvshd.velocitypunishment.internal.Util;
+import de.jvstvshd.velocitypunishment.sql.SqlStatement;
+import net.kyori.adventure.text.Component;
+
+import java.net.InetAddress;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static de.jvstvshd.velocitypunishment.internal.Util.executeAsync;
+
+/**
+ * Manages bans of IPv4 and IPv6 networks. All active bans are kept in one {@link AddressTrie} per address family, so
+ * checking the address of a connecting player needs no database query. The tries are updated incrementally whenever
+ * a network is banned or unbanned through this manager and rebuilt from the database by {@link #load()}. Bans and
+ * unbans made while the tries are rebuilt are applied to the rebuilt tries as well.
+ */
+public class AddressBanManager {
+
+    private final VelocityPunishmentPlugin plugin;
+    private final ExecutorService service;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private AddressTrie<AddressBan> ipv4 = new AddressTrie<>(4);
+    private AddressTrie<AddressBan> ipv6 = new AddressTrie<>(16);
+    private final Object loadLock = new Object();
+    /**
+     * The changes made since the running {@link #load()} started, null if no load is running. An empty value marks
+     * an unban.
+     */
+    private Map<AddressRange, Optional<AddressBan>> pendingChanges;
+
+    public AddressBanManager(VelocityPunishmentPlugin plugin, ExecutorService service) {
+        this.plugin = plugin;
+        this.service = service;
+        plugin.getMetrics().gauge("address-bans", this::size);
+    }
+
+    /**
+     * Deletes expired bans and replaces the bans held in memory with the active bans stored in the database, e.g.
+     * to pick up bans made on other proxies.
+     *
+     * @return a {@link CompletableFuture} containing the number of active bans
+     */
+    public CompletableFuture<Integer> load() {
+        return executeAsync(() -> {
+            synchronized (loadLock) {
+                lock.writeLock().lock();
+                try {
+                    pendingChanges = new LinkedHashMap<>();
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                try {
+                    return reload();
+                } finally {
+                    lock.writeLock().lock();
+                    try {
+                        pendingChanges = null;
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                }
+            }
+        }, service);
+    }
+
+    private int reload() throws SQLException {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        plugin.getQueryExecutor().statement(SqlStatement.DELETE_EXPIRED_ADDRESS_BANS).update(now);
+        AddressTrie<AddressBan> loadedIpv4 = new AddressTrie<>(4);
+        AddressTrie<AddressBan> loadedIpv6 = new AddressTrie<>(16);
+        plugin.getQueryExecutor().statement(SqlStatement.SELECT_ADDRESS_BANS).query(resultSet -> {
+            while (resultSet.next()) {
+                AddressRange range;
+                try {
+                    range = AddressRange.parse(resultSet.getString(1));
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().warn("Skipping address ban with invalid network {}", resultSet.getString(1));
+                    continue;
+                }
+                AddressBan ban = new AddressBan(range, StoredReason.fromDatabase(resultSet.getString(3), null, null),
+                        PunishmentDuration.fromTimestamp(resultSet.getTimestamp(2)), Util.parseUuid(resultSet.getString(4)));
+                (range.isIpv6() ? loadedIpv6 : loadedIpv4).put(range, ban);
+            }
+            return null;
+        }, now);
+        lock.writeLock().lock();
+        try {
+            pendingChanges.forEach((range, change) -> {
+                AddressTrie<AddressBan> trie = range.isIpv6() ? loadedIpv6 : loadedIpv4;
+                if (change.isPresent()) {
+                    trie.put(range, change.get());
+                } else {
+                    trie.remove(range);
+                }
+            });
+            ipv4 = loadedIpv4;
+            ipv6 = loadedIpv6;
+            return loadedIpv4.size() + loadedIpv6.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Bans a network, replacing a previous ban of the same network. Online players connecting from inside the network
+     * are disconnected.
+     *
+     * @param range    the network
+     * @param reason   the reason
+     * @param duration the duration
+     * @return a {@link CompletableFuture} containing the ban
+     */
+    public CompletableFuture<AddressBan> ban(AddressRange range, Component reason, PunishmentDuration duration) {
+        AddressBan ban = new AddressBan(range, StoredReason.of(reason), duration.absolute(), UUID.randomUUID());
+        return executeAsync(() -> {
+            plugin.getQueryExecutor().statement(SqlStatement.INSERT_ADDRESS_BAN).update(range.toString(),
+                    ban.getDuration().timestampExpiration(), ban.getStoredReason().serialized(), Util.trimUuid(ban.getPunishmentUuid()),
+                    Timestamp.valueOf(LocalDateTime.now()));
+            lock.writeLock().lock();
+            try {
+                trie(range).put(range, ban);
+                if (pendingChanges != null) {
+                    pendingChanges.put(range, Optional.of(ban));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            for (Player player : plugin.getServer().getAllPlayers()) {
+                if (player.getRemoteAddress() != null && range.contains(player.getRemoteAddress().getAddress())) {
+                    player.disconnect(ban.createFullReason(player, plugin.getMessageProvider()));
+                }
+            }
+            return ban;
+        }, service);
+    }
+
+    /**
+     * @param range the network
+     * @return a {@link CompletableFuture} containing whether the network was banned
+     */
+    public CompletableFuture<Boolean> unban(AddressRange range) {
+        return executeAsync(() -> {
+            int deleted = plugin.getQueryExecutor().statement(SqlStatement.DELETE_ADDRESS_BAN).update(range.toString());
+            AddressBan removed;
+            lock.writeLock().lock();
+            try {
+                removed = trie(range).remove(range);
+                if (pendingChanges != null) {
+                    pendingChanges.put(range, Optional.empty());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return deleted > 0 || removed != null;
+        }, service);
+    }
+
+    /**
+     * Finds the ban of the most specific network containing {@code address} that has not expired yet.
+     *
+     * @param address the address
+     * @return the ban or {@link Optional#empty()}, if the address is not banned
+     */
+    public Optional<AddressBan> find(InetAddress address) {
+        byte[] bytes = AddressRange.bytes(address);
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable((bytes.length == 16 ? ipv6 : ipv4).find(bytes, AddressBan::isOngoing));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ipv4.size() + ipv6.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private AddressTrie<AddressBan> trie(AddressRange range) {
+        return range.isIpv6() ? ipv6 : ipv4;
+    }
+}
@@ -26,20 +26,19 @@ package de.jvstvshd.velocitypunishment.impl;
 
 import com.velocitypowered.api.command.CommandSource;
 import com.velocitypowered.api.proxy.Player;
+import de.jvstvshd.velocitypunishment.api.event.PunishmentChangedEvent;
+import de.jvstvshd.velocitypunishment.api.event.PunishmentCreatedEvent;
+import de.jvstvshd.velocitypunishment.api.event.PunishmentRevokedEvent;
 import de.jvstvshd.velocitypunishment.api.message.MessageProvider;
 import de.jvstvshd.velocitypunishment.api.punishment.*;
 import de.jvstvshd.velocitypunishment.api.punishment.util.PlayerResolver;
 import de.jvstvshd.velocitypunishment.internal.Util;
+import de.jvstvshd.velocitypunishment.sql.SqlStatement;
 import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.format.NamedTextColor;
-import net.kyori.adventure.text.format.TextDecoration;
 
 import javax.sql.DataSource;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -57,56 +56,62 @@ public class DefaultBan extends AbstractTemporalPunishment implements Ban {
         super(playerUuid, reason, dataSource, service, punishmentManager, punishmentUuid, playerResolver, duration, messageProvider);
     }
 
+    public DefaultBan(UUID playerUuid, StoredReason reason, DataSource dataSource, ExecutorService service, PunishmentManager punishmentManager, UUID punishmentUuid, PlayerResolver playerResolver, PunishmentDuration duration, MessageProvider messageProvider) {
+        super(playerUuid, reason, dataSource, service, punishmentManager, punishmentUuid, playerResolver, duration, messageProvider);
+    }
+
     @Override
     public boolean isOngoing() {
-        return getDuration().expiration().isAfter(LocalDateTime.now());
+        return !getDuration().isExpired();
     }
 
     @Override
-    public CompletableFuture<Punishment> punish() {
-        checkValidity();
-        return executeAsync(() -> {
+    protected DefaultBan withChanges(PunishmentDuration duration, StoredReason reason) {
+        return new DefaultBan(getPlayerUuid(), reason, getDataSource(), getService(), getPunishmentManager(), getPunishmentUuid(), getPlayerResolver(), duration, getMessageProvider());
+    }
+
+    @Override
+    protected CompletableFuture<Punishment> persist() {
+        return executeAsync("punish", () -> {
             tryKick();
-            try (Connection connection = getDataSource().getConnection();
-                 PreparedStatement statement = connection.prepareStatement(APPLY_PUNISHMENT)) {
-                statement.setString(1, Util.trimUuid(getPlayerUuid()));
-                statement.setString(2, getPlayerResolver().getOrQueryPlayerName(getPlayerUuid(),
-                        Executors.newSingleThreadExecutor()).get(5, TimeUnit.SECONDS).toLowerCase());
-                statement.setString(3, getType().name());
-                statement.setTimestamp(4, getDuration().timestampExpiration());
-                statement.setString(5, convertReason(getReason()));
-                statement.setString(6, Util.trimUuid(getPunishmentUuid()));
-                statement.executeUpdate();
-                return this;
-            }
+            String name = getPlayerResolver().getOrQueryPlayerName(getPlayerUuid(),
+                    Executors.newSingleThreadExecutor()).get(5, TimeUnit.SECONDS).toLowerCase();
+            getQueryExecutor().statement(SqlStatement.INSERT_PUNISHMENT).concerning(getPlayerUuid(), getType())
+                    .update(Util.trimUuid(getPlayerUuid()), name, getType().name(), getDuration().timestampExpiration(),
+                            getStoredReason(), Util.trimUuid(getPunishmentUuid()), Timestamp.valueOf(LocalDateTime.now()), getReasonTemplate(),
+                            getReasonText());
+            fireEvent(new PunishmentCreatedEvent(this, getPlayerUuid()));
+            return this;
         }, getService());
     }
 
     @Override
     public CompletableFuture<Punishment> cancel() {
-        return executeAsync(() -> {
-            try (Connection connection = getDataSource().getConnection();
-                 PreparedStatement statement = connection.prepareStatement(APPLY_ANNUL)) {
-                statement.setString(1, Util.trimUuid(getPunishmentUuid()));
-                statement.executeUpdate();
-                return this;
+        return executeAsync("cancel", () -> {
+            int deleted = getQueryExecutor().statement(SqlStatement.DELETE_PUNISHMENT).concerning(getPlayerUuid(), getType())
+                    .update(Util.trimUuid(getPunishmentUuid()));
+            if (deleted > 0) {
+                fireEvent(new PunishmentRevokedEvent(this, getPlayerUuid()));
             }
+            return this;
         }, getService());
     }
 
     @Override
     public CompletableFuture<Punishment> change(PunishmentDuration newDuration, Component newReason) {
-        return executeAsync(() -> {
+        return executeAsync("change", () -> {
             tryKick();
-            try (Connection connection = getDataSource().getConnection();
-                 PreparedStatement statement = connection.prepareStatement(APPLY_CHANGE)) {
-                statement.setString(1, convertReason(newReason));
-                statement.setTimestamp(2, Timestamp.valueOf(newDuration.expiration()));
-                statement.setBoolean(3, newDuration.isPermanent());
-                statement.setString(4, Util.trimUuid(getPunishmentUuid()));
-                statement.executeUpdate();
+            PunishmentDuration duration = newDuration.absolute();
+            int updated = getQueryExecutor().statement(SqlStatement.UPDATE_PUNISHMENT).concerning(getPlayerUuid(), getType())
+                    .update(convertReason(newReason), StoredReason.plainText(newReason), duration.timestampExpiration(),
+                            (duration.isPermanent() ? StandardPunishmentType.PERMANENT_BAN : StandardPunishmentType.BAN).getName(),
+                            Util.trimUuid(getPunishmentUuid()));
+            if (updated == 0) {
+                throw new IllegalStateException("punishment " + getPunishmentUuid() + " does not exist anymore");
             }
-            return new DefaultBan(getPlayerUuid(), newReason, getDataSource(), getPlayerResolver(), getPunishmentManager(), getService(), newDuration, getMessageProvider());
+            var changed = new DefaultBan(getPlayerUuid(), newReason, getDataSource(), getService(), getPunishmentManager(), getPunishmentUuid(), getPlayerResolver(), duration, getMessageProvider());
+            fireEvent(new PunishmentChangedEvent(this, changed, getPlayerUuid()));
+            return changed;
         }, getService());
     }
 
@@ -124,16 +129,7 @@ public class DefaultBan extends AbstractTemporalPunishment implements Ban {
 
     @Override
     public Component createFullReason(CommandSource source) {
-        if (!isValid()) {
-            return Component.text("INVALID").decorate(TextDecoration.BOLD).color(NamedTextColor.DARK_RED);
-        }
-        if (isPermanent()) {
-            return getMessageProvider().provide("punishment.ban.permanent.full-reason", source, true, getReason());
-        } else {
-            var until = Component.text(getDuration().expiration().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")))
-                    .color(NamedTextColor.YELLOW);
-            return getMessageProvider().provide("punishment.ban.temp.full-reason", source, true, Component.text(getDuration().getRemainingDuration()).color(NamedTextColor.YELLOW), getReason(), until);
-        }
+        return createFullReason(source, "punishment.ban.permanent.full-reason", "punishment.ban.temp.full-reason");
     }
 
     @Override
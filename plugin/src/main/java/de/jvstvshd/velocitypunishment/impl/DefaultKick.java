@@ -26,6 +26,7 @@ package de.jvstvshd.velocitypunishment.impl;
 
 import com.velocitypowered.api.command.CommandSource;
 import com.velocitypowered.api.proxy.Player;
+import de.jvstvshd.velocitypunishment.api.event.PunishmentCreatedEvent;
 import de.jvstvshd.velocitypunishment.api.message.MessageProvider;
 import de.jvstvshd.velocitypunishment.api.punishment.*;
 import de.jvstvshd.velocitypunishment.api.punishment.util.PlayerResolver;
@@ -55,6 +56,7 @@ public class DefaultKick extends AbstractPunishment implements Kick {
                     "a) this player does not exist (wrong uuid)\n" +
                     "b) the player is not online and so can't be kicked.");
         optPlayer.get().disconnect(getReason());
+        fireEvent(new PunishmentCreatedEvent(this, getPlayerUuid()));
         return CompletableFuture.completedFuture(null);
     }
 
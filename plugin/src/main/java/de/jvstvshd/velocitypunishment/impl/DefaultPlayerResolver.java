@@ -28,10 +28,13 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonParser;
 import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.ProxyServer;
+import de.jvstvshd.velocitypunishment.api.metrics.PunishmentMetrics;
 import de.jvstvshd.velocitypunishment.api.punishment.util.PlayerResolver;
 import de.jvstvshd.velocitypunishment.internal.Util;
+import de.jvstvshd.velocitypunishment.jfr.PlayerResolveEvent;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
@@ -45,9 +48,11 @@ import java.util.concurrent.Executor;
 public class DefaultPlayerResolver implements PlayerResolver {
 
     private final ProxyServer proxyServer;
+    private final PunishmentMetrics metrics;
 
-    public DefaultPlayerResolver(ProxyServer proxyServer) {
+    public DefaultPlayerResolver(ProxyServer proxyServer, PunishmentMetrics metrics) {
         this.proxyServer = proxyServer;
+        this.metrics = metrics;
     }
 
     @Override
@@ -66,7 +71,7 @@ public class DefaultPlayerResolver implements PlayerResolver {
             try {
                 HttpClient httpClient = HttpClient.newHttpClient();
                 HttpRequest request = HttpRequest.newBuilder(URI.create("https://sessionserver.mojang.com/session/minecraft/profile/" + uuid)).GET().build();
-                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                HttpResponse<String> response = send(httpClient, request, "name", uuid.toString());
                 JsonElement jsonElement = JsonParser.parseString(response.body());
                 cf.complete(jsonElement.getAsJsonObject().get("name").getAsString());
             } catch (Exception e) {
@@ -76,11 +81,30 @@ public class DefaultPlayerResolver implements PlayerResolver {
         return cf;
     }
 
+    private HttpResponse<String> send(HttpClient httpClient, HttpRequest request, String query, String input) throws IOException, InterruptedException {
+        var event = new PlayerResolveEvent();
+        event.begin();
+        HttpResponse<String> response = null;
+        try (var ignored = metrics.timer("resolver.http." + query).start()) {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            return response;
+        } finally {
+            if (event.shouldCommit()) {
+                event.query = query;
+                event.input = input;
+                event.statusCode = response == null ? -1 : response.statusCode();
+                event.commit();
+            }
+        }
+    }
+
     @Override
     public CompletableFuture<String> getOrQueryPlayerName(@NotNull UUID uuid, @NotNull Executor executor) {
         if (getPlayerName(uuid).isPresent()) {
+            metrics.counter("cache.resolver.hit").increment();
             return CompletableFuture.completedFuture(getPlayerName(uuid).get());
         }
+        metrics.counter("cache.resolver.miss").increment();
         return queryPlayerName(uuid, executor);
     }
 
@@ -99,7 +123,7 @@ public class DefaultPlayerResolver implements PlayerResolver {
             try {
                 HttpClient httpClient = HttpClient.newHttpClient();
                 HttpRequest request = HttpRequest.newBuilder(URI.create("https://api.mojang.com/users/profiles/minecraft/" + name)).GET().build();
-                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                HttpResponse<String> response = send(httpClient, request, "uuid", name);
                 JsonElement jsonElement = JsonParser.parseString(response.body());
                 if (jsonElement == null || jsonElement.isJsonNull()) {
                     cf.complete(null);
@@ -131,11 +155,13 @@ public class DefaultPlayerResolver implements PlayerResolver {
     @Override
     public CompletableFuture<UUID> getOrQueryPlayerUuid(@NotNull String name, @NotNull Executor executor) {
         if (getPlayerUuid(name).isPresent()) {
+            metrics.counter("cache.resolver.hit").increment();
             return CompletableFuture.completedFuture(getPlayerUuid(name).get());
         }
         try {
             return CompletableFuture.completedFuture(Util.parseUuid(name));
         } catch (IllegalArgumentException e) {
+            metrics.counter("cache.resolver.miss").increment();
             return queryPlayerUuid(name, executor);
         }
     }
@@ -29,33 +29,49 @@ import com.velocitypowered.api.proxy.ProxyServer;
 import com.zaxxer.hikari.HikariDataSource;
 import de.jvstvshd.velocitypunishment.VelocityPunishmentPlugin;
 import de.jvstvshd.velocitypunishment.api.punishment.*;
+import de.jvstvshd.velocitypunishment.internal.ReasonTemplates;
 import de.jvstvshd.velocitypunishment.internal.Util;
+import de.jvstvshd.velocitypunishment.metrics.DefaultMetrics;
+import de.jvstvshd.velocitypunishment.sql.PunishmentSearch;
+import de.jvstvshd.velocitypunishment.sql.QueryExecutor;
+import de.jvstvshd.velocitypunishment.sql.SqlStatement;
 import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 
-import java.sql.*;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 
 import static de.jvstvshd.velocitypunishment.internal.Util.executeAsync;
 
 public class DefaultPunishmentManager implements PunishmentManager {
 
+    /**
+     * Rows fetched per round trip while streaming a punishment history.
+     */
+    private static final int STREAM_FETCH_SIZE = 64;
+
     private final ProxyServer proxyServer;
     private final HikariDataSource dataSource;
     private final ExecutorService service = Executors.newCachedThreadPool();
     private final VelocityPunishmentPlugin plugin;
-
-    private static final String QUERY_PUNISHMENT_WITH_ID = "SELECT uuid, name, type, expiration, reason FROM velocity_punishment WHERE punishment_id = ?";
-    private static final String SELECT_PUNISHMENT_WITH_TYPE = "SELECT expiration, reason, punishment_id FROM velocity_punishment WHERE uuid = ? AND type = ?";
+    /**
+     * The number of players one {@link #getActiveBans(Collection, Executor)} can query at once.
+     */
+    public static final int MAX_PLAYER_LIST_SIZE = 64;
+    private static final int[] PLAYER_LIST_SIZES = {1, 4, 16, MAX_PLAYER_LIST_SIZE};
 
     public DefaultPunishmentManager(ProxyServer proxyServer, HikariDataSource dataSource, VelocityPunishmentPlugin plugin) {
         this.proxyServer = proxyServer;
         this.dataSource = dataSource;
         this.plugin = plugin;
+        plugin.getMetrics().executorGauges("punishment-manager", service);
     }
 
     @Override
@@ -68,6 +84,30 @@ public class DefaultPunishmentManager implements PunishmentManager {
         return new DefaultMute(player, reason, dataSource, plugin.getPlayerResolver(), this, service, duration, plugin.getMessageProvider());
     }
 
+    /**
+     * Creates a ban whose reason is taken from a template. Only the id of the template is stored.
+     *
+     * @param player   the player to ban
+     * @param template the template of the reason
+     * @param duration the duration of the ban
+     * @return the ban
+     */
+    public Ban createBan(UUID player, ReasonTemplates.Template template, PunishmentDuration duration) {
+        return new DefaultBan(player, StoredReason.of(template), dataSource, service, this, UUID.randomUUID(), plugin.getPlayerResolver(), duration, plugin.getMessageProvider());
+    }
+
+    /**
+     * Creates a mute whose reason is taken from a template. Only the id of the template is stored.
+     *
+     * @param player   the player to mute
+     * @param template the template of the reason
+     * @param duration the duration of the mute
+     * @return the mute
+     */
+    public Mute createMute(UUID player, ReasonTemplates.Template template, PunishmentDuration duration) {
+        return new DefaultMute(player, StoredReason.of(template), dataSource, service, this, UUID.randomUUID(), plugin.getPlayerResolver(), duration, plugin.getMessageProvider());
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public CompletableFuture<List<Punishment>> getPunishments(UUID player, Executor service, PunishmentType... types) {
@@ -75,33 +115,194 @@ public class DefaultPunishmentManager implements PunishmentManager {
             List<StandardPunishmentType> typeList = types.length == 0 ? Arrays.stream(StandardPunishmentType.values()).toList() : getTypes(types);
             List<Punishment> punishments = new ArrayList<>();
             for (StandardPunishmentType standardPunishmentType : typeList) {
-                try (Connection connection = dataSource.getConnection();
-                     PreparedStatement statement = connection.prepareStatement(SELECT_PUNISHMENT_WITH_TYPE)) {
-                    statement.setString(1, Util.trimUuid(player));
-                    statement.setString(2, standardPunishmentType.getName());
-                    punishments.addAll(getPunishments(statement.executeQuery(), standardPunishmentType, player));
-                }
+                punishments.addAll(getQueryExecutor().statement(SqlStatement.SELECT_PUNISHMENTS_BY_TYPE)
+                        .concerning(player, standardPunishmentType)
+                        .query(resultSet -> getPunishments(resultSet, standardPunishmentType, player),
+                                Util.trimUuid(player), standardPunishmentType.getName()));
             }
             return ImmutableList.copyOf(punishments);
         }, service);
     }
 
+    @Override
+    public <T extends Punishment> CompletableFuture<PunishmentPage<T>> getPunishments(UUID player, Executor service, PunishmentCursor after, int limit, PunishmentType... types) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive: " + limit);
+        }
+        return executeAsync(() -> {
+            List<Object> parameters = typeParameters(player, types);
+            if (after != null) {
+                Timestamp expiration = Timestamp.valueOf(after.expiration());
+                parameters.add(expiration);
+                parameters.add(expiration);
+                parameters.add(Util.trimUuid(after.punishmentId()));
+            }
+            //one more row than requested tells whether there is a next page
+            parameters.add(limit + 1);
+            return getQueryExecutor().statement(after == null ? SqlStatement.SELECT_PUNISHMENT_PAGE : SqlStatement.SELECT_PUNISHMENT_PAGE_AFTER)
+                    .concerning(player, null)
+                    .<PunishmentPage<T>>query(resultSet -> {
+                        List<T> punishments = new ArrayList<>(Math.min(limit, 64));
+                        PunishmentCursor next = null;
+                        Timestamp lastExpiration = null;
+                        UUID lastId = null;
+                        while (resultSet.next()) {
+                            if (punishments.size() == limit) {
+                                next = new PunishmentCursor(lastExpiration.toLocalDateTime(), lastId);
+                                break;
+                            }
+                            lastExpiration = resultSet.getTimestamp(2);
+                            lastId = Util.parseUuid(resultSet.getString(4));
+                            punishments.add(getHistoryPunishment(resultSet, player, lastExpiration, lastId));
+                        }
+                        return new PunishmentPage<>(ImmutableList.copyOf(punishments), next);
+                    }, parameters.toArray());
+        }, service);
+    }
+
+    @Override
+    public CompletableFuture<Integer> countActive(UUID player, Executor service, PunishmentType... types) {
+        return executeAsync(() -> {
+            List<Object> parameters = typeParameters(player, types);
+            parameters.add(Timestamp.valueOf(LocalDateTime.now()));
+            return getQueryExecutor().statement(SqlStatement.COUNT_ACTIVE_PUNISHMENTS).concerning(player, null)
+                    .query(resultSet -> resultSet.next() ? resultSet.getInt(1) : 0, parameters.toArray());
+        }, service);
+    }
+
+    /**
+     * Finds the active bans of several players with a single query. The player list is padded to one of a few fixed
+     * sizes by repeating the last player, so only a few distinct statements are prepared.
+     *
+     * @param players at most {@link #MAX_PLAYER_LIST_SIZE} players
+     * @param service the executor to query the database on
+     * @return a {@link CompletableFuture} containing the active bans, mapped by player
+     */
+    public CompletableFuture<Map<UUID, List<Ban>>> getActiveBans(Collection<UUID> players, Executor service) {
+        if (players.size() > MAX_PLAYER_LIST_SIZE) {
+            throw new IllegalArgumentException("at most " + MAX_PLAYER_LIST_SIZE + " players can be queried at once");
+        }
+        if (players.isEmpty()) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+        return executeAsync(() -> {
+            int size = playerListSize(players.size());
+            List<Object> parameters = new ArrayList<>(size + 3);
+            parameters.add(StandardPunishmentType.BAN.getName());
+            parameters.add(StandardPunishmentType.PERMANENT_BAN.getName());
+            parameters.add(Timestamp.valueOf(LocalDateTime.now()));
+            String last = null;
+            for (UUID player : players) {
+                last = Util.trimUuid(player);
+                parameters.add(last);
+            }
+            for (int i = players.size(); i < size; i++) {
+                parameters.add(last);
+            }
+            return getQueryExecutor().statement(SqlStatement.SELECT_ACTIVE_BANS, " AND uuid IN (?" + ", ?".repeat(size - 1) + ")")
+                    .query(resultSet -> {
+                        Map<UUID, List<Ban>> bans = new HashMap<>();
+                        while (resultSet.next()) {
+                            Ban ban = getPunishment(resultSet, Util.parseUuid(resultSet.getString(5)), 1, 3, 4, 6, 2);
+                            bans.computeIfAbsent(Util.parseUuid(resultSet.getString(1)), uuid -> new ArrayList<>()).add(ban);
+                        }
+                        return bans;
+                    }, parameters.toArray());
+        }, service);
+    }
+
+    private static int playerListSize(int players) {
+        for (int size : PLAYER_LIST_SIZES) {
+            if (size >= players) {
+                return size;
+            }
+        }
+        throw new IllegalArgumentException("too many players: " + players);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasActive(UUID player, Executor service, PunishmentType... types) {
+        return executeAsync(() -> {
+            List<Object> parameters = typeParameters(player, types);
+            parameters.add(Timestamp.valueOf(LocalDateTime.now()));
+            return getQueryExecutor().statement(SqlStatement.EXISTS_ACTIVE_PUNISHMENT).concerning(player, null)
+                    .query(ResultSet::next, parameters.toArray());
+        }, service);
+    }
+
+    @Override
+    public CompletableFuture<PunishmentPage<Punishment>> search(PunishmentQuery query, Executor service) {
+        return executeAsync(() -> {
+            PunishmentSearch search = PunishmentSearch.compile(query, LocalDateTime.now(), plugin.getReasonTemplates());
+            return getQueryExecutor().statement(SqlStatement.SEARCH_PUNISHMENTS, search.clauses())
+                    .concerning(query.player().orElse(null), query.types().size() == 1 ? query.types().iterator().next() : null)
+                    .<PunishmentPage<Punishment>>query(resultSet -> {
+                        List<Punishment> punishments = new ArrayList<>(Math.min(query.limit(), 64));
+                        PunishmentCursor next = null;
+                        Timestamp lastExpiration = null;
+                        UUID lastId = null;
+                        while (resultSet.next()) {
+                            if (punishments.size() == query.limit()) {
+                                next = new PunishmentCursor(lastExpiration.toLocalDateTime(), lastId);
+                                break;
+                            }
+                            lastExpiration = resultSet.getTimestamp(3);
+                            lastId = Util.parseUuid(resultSet.getString(5));
+                            punishments.add(getPunishment(resultSet, lastId, 1, 3, 4, 6, 2));
+                        }
+                        return new PunishmentPage<>(ImmutableList.copyOf(punishments), next);
+                    }, search.parameters());
+        }, service);
+    }
+
+    @Override
+    public CompletableFuture<Integer> streamPunishments(UUID player, Executor service, Consumer<? super Punishment> consumer, PunishmentType... types) {
+        return executeAsync(() -> getQueryExecutor().statement(SqlStatement.SELECT_PUNISHMENT_HISTORY)
+                .concerning(player, null)
+                .fetchSize(STREAM_FETCH_SIZE)
+                .query(resultSet -> {
+                    int count = 0;
+                    while (resultSet.next()) {
+                        consumer.accept(getHistoryPunishment(resultSet, player, resultSet.getTimestamp(2), Util.parseUuid(resultSet.getString(4))));
+                        count++;
+                    }
+                    return count;
+                }, typeParameters(player, types).toArray()), service);
+    }
+
+    /**
+     * Binds the player and the type list of {@link SqlStatement#SELECT_PUNISHMENT_PAGE} and the other statements with
+     * a type list. The statements have a fixed number of type parameters, so the last requested type fills the
+     * remaining ones.
+     */
+    private List<Object> typeParameters(UUID player, PunishmentType... types) {
+        List<StandardPunishmentType> typeList = types.length == 0 ? Arrays.asList(StandardPunishmentType.values()) : getTypes(types);
+        if (typeList.isEmpty()) {
+            throw new IllegalArgumentException("no punishment types given");
+        }
+        List<Object> parameters = new ArrayList<>();
+        parameters.add(Util.trimUuid(player));
+        for (int i = 0; i < StandardPunishmentType.values().length; i++) {
+            parameters.add(typeList.get(Math.min(i, typeList.size() - 1)).getName());
+        }
+        return parameters;
+    }
+
+    private <T extends Punishment> T getHistoryPunishment(ResultSet resultSet, UUID player, Timestamp expiration, UUID punishmentId) throws SQLException {
+        StandardPunishmentType type = StandardPunishmentType.valueOf(resultSet.getString(1).toUpperCase(Locale.ROOT));
+        return createPunishment(type, player, getReason(resultSet, 3, 5), punishmentId,
+                PunishmentDuration.fromTimestamp(expiration));
+    }
+
     private List<Punishment> getPunishments(ResultSet resultSet, StandardPunishmentType type, UUID uuid) {
         try {
             List<Punishment> punishments = new ArrayList<>();
             while (resultSet.next()) {
                 final Timestamp timestamp = resultSet.getTimestamp(1);
                 final PunishmentDuration duration = PunishmentDuration.fromTimestamp(timestamp);
-                final Component reason = LegacyComponentSerializer.legacySection().deserialize(resultSet.getString(2));
+                final StoredReason reason = getReason(resultSet, 2, 4);
                 final UUID punishmentUuid = Util.parseUuid(resultSet.getString(3));
-                Punishment punishment;
-                switch (type) {
-                    case BAN, PERMANENT_BAN -> punishment = new DefaultBan(uuid, reason, dataSource, service, this, punishmentUuid, plugin.getPlayerResolver(), duration, plugin.getMessageProvider());
-                    case MUTE, PERMANENT_MUTE -> punishment = new DefaultMute(uuid, reason, dataSource, service, this, punishmentUuid, plugin.getPlayerResolver(), duration, plugin.getMessageProvider());
-                    case KICK -> punishment = new DefaultKick(uuid, reason, dataSource, service, this, punishmentUuid, plugin.getPlayerResolver(), plugin.getMessageProvider());
-                    default -> throw new UnsupportedOperationException("unhandled punishment type: " + type.getName());
-                }
-                punishments.add(punishment);
+                punishments.add(createPunishment(type, uuid, reason, punishmentUuid, duration));
             }
             return punishments;
         } catch (SQLException e) {
@@ -110,28 +311,35 @@ public class DefaultPunishmentManager implements PunishmentManager {
         return ImmutableList.of();
     }
 
-    @SuppressWarnings("unchecked")
+    private StoredReason getReason(ResultSet resultSet, int reasonIndex, int templateIndex) throws SQLException {
+        return StoredReason.fromDatabase(resultSet.getString(reasonIndex), resultSet.getString(templateIndex), plugin.getReasonTemplates());
+    }
+
     private <T extends Punishment> T getPunishment(ResultSet resultSet, StandardPunishmentType type, UUID punishmentUuid, int uuidIndex,
-                                                   int timestampIndex, int reasonIndex) throws SQLException {
+                                                   int timestampIndex, int reasonIndex, int templateIndex) throws SQLException {
         final UUID uuid = Util.parseUuid(resultSet.getString(uuidIndex));
         PunishmentDuration duration = null;
         if (timestampIndex != -1) {
             final Timestamp timestamp = resultSet.getTimestamp(timestampIndex);
             duration = PunishmentDuration.fromTimestamp(timestamp);
         }
-        final Component reason = LegacyComponentSerializer.legacySection().deserialize(resultSet.getString(reasonIndex));
+        final StoredReason reason = getReason(resultSet, reasonIndex, templateIndex);
+        return createPunishment(type, uuid, reason, punishmentUuid, duration);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Punishment> T createPunishment(StandardPunishmentType type, UUID uuid, StoredReason reason, UUID punishmentUuid, PunishmentDuration duration) {
         return (T) switch (type) {
             case BAN, PERMANENT_BAN -> new DefaultBan(uuid, reason, dataSource, service, this, punishmentUuid, plugin.getPlayerResolver(), duration, plugin.getMessageProvider());
             case MUTE, PERMANENT_MUTE -> new DefaultMute(uuid, reason, dataSource, service, this, punishmentUuid, plugin.getPlayerResolver(), duration, plugin.getMessageProvider());
-            case KICK -> new DefaultKick(uuid, reason, dataSource, service, this, punishmentUuid, plugin.getPlayerResolver(), plugin.getMessageProvider());
+            case KICK -> new DefaultKick(uuid, reason.component(), dataSource, service, this, punishmentUuid, plugin.getPlayerResolver(), plugin.getMessageProvider());
         };
     }
 
-    @SuppressWarnings("SameParameterValue")
     private <T extends Punishment> T getPunishment(ResultSet resultSet, UUID punishmentId, int uuidIndex, int timestampIndex, int reasonIndex,
-                                                   int typeIndex) throws SQLException {
+                                                   int templateIndex, int typeIndex) throws SQLException {
         return getPunishment(resultSet, StandardPunishmentType.valueOf(resultSet.getString(typeIndex).toUpperCase(Locale.ROOT)),
-                punishmentId, uuidIndex, timestampIndex, reasonIndex);
+                punishmentId, uuidIndex, timestampIndex, reasonIndex, templateIndex);
     }
 
 
@@ -151,24 +359,66 @@ public class DefaultPunishmentManager implements PunishmentManager {
         return proxyServer;
     }
 
+    /**
+     * Stores the plain text of all reasons written before it was stored, so reason searches find them.
+     *
+     * @return a {@link CompletableFuture} containing the number of updated punishments
+     */
+    public CompletableFuture<Integer> fillReasonTexts() {
+        return executeAsync(() -> {
+            Map<String, String> texts = getQueryExecutor().statement(SqlStatement.SELECT_REASONS_WITHOUT_TEXT).query(resultSet -> {
+                Map<String, String> result = new HashMap<>();
+                while (resultSet.next()) {
+                    result.put(resultSet.getString(1), StoredReason.plainText(StoredReason.deserialize(resultSet.getString(2))));
+                }
+                return result;
+            });
+            for (Map.Entry<String, String> entry : texts.entrySet()) {
+                getQueryExecutor().statement(SqlStatement.UPDATE_REASON_TEXT).update(entry.getValue(), entry.getKey());
+            }
+            return texts.size();
+        }, service);
+    }
+
+    public DefaultMetrics getMetrics() {
+        return plugin.getMetrics();
+    }
+
+    public QueryExecutor getQueryExecutor() {
+        return plugin.getQueryExecutor();
+    }
+
+    public long getPrePunishmentTimeoutMillis() {
+        return plugin.getPrePunishmentTimeoutMillis();
+    }
+
     @Override
     public <T extends Punishment> CompletableFuture<Optional<T>> getPunishment(UUID punishmentId, Executor service) {
         return executeAsync(() -> {
-            try (Connection connection = dataSource.getConnection();
-                 PreparedStatement statement = connection.prepareStatement(QUERY_PUNISHMENT_WITH_ID)) {
-                statement.setString(1, Util.trimUuid(punishmentId));
-                ResultSet rs = statement.executeQuery();
-                if (rs.next()) {
-                    return Optional.of(getPunishment(rs, punishmentId, 1, 4, 5, 3));
+            return getQueryExecutor().statement(SqlStatement.SELECT_PUNISHMENT_BY_ID).<Optional<T>>query(resultSet -> {
+                if (resultSet.next()) {
+                    return Optional.of(getPunishment(resultSet, punishmentId, 1, 4, 5, 6, 3));
                 } else {
                     return Optional.empty();
                 }
-            }
+            }, Util.trimUuid(punishmentId));
         }, service);
     }
 
+    /**
+     * Answered by a single {@code EXISTS}-style query in one task of {@code executor}; the task never waits for
+     * another task, so a bounded executor cannot deadlock.
+     */
     @Override
     public CompletableFuture<Boolean> isBanned(UUID playerUuid, Executor executor) {
-        return executeAsync(() -> !getPunishments(playerUuid, executor, StandardPunishmentType.BAN, StandardPunishmentType.PERMANENT_BAN).get().isEmpty(), executor);
+        return hasActive(playerUuid, executor, StandardPunishmentType.BAN, StandardPunishmentType.PERMANENT_BAN);
+    }
+
+    /**
+     * Like {@link #isBanned(UUID, Executor)}, a single query in a single task.
+     */
+    @Override
+    public CompletableFuture<Boolean> isMuted(UUID playerUuid, Executor executor) {
+        return hasActive(playerUuid, executor, StandardPunishmentType.MUTE, StandardPunishmentType.PERMANENT_MUTE);
     }
 }
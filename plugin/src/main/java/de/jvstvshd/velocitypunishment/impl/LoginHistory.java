@@ -0,0 +1,218 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.impl;
+
+import com.velocitypowered.api.event.PostOrder;
+import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.connection.DisconnectEvent;
+import com.velocitypowered.api.proxy.Player;
+import de.jvstvshd.velocitypunishment.VelocityPunishmentPlugin;
+import de.jvstvshd.velocitypunishment.internal.AddressRange;
+import de.jvstvshd.velocitypunishment.internal.Util;
+import de.jvstvshd.velocitypunishment.sql.SqlStatement;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+import static de.jvstvshd.velocitypunishment.internal.Util.executeAsync;
+
+/**
+ * Records the logins of all players and links accounts which logged in from the same address. The links of the
+ * configured number of days are kept in an in-memory index mapping addresses to accounts and accounts to addresses,
+ * so the accounts linked to a player are found without querying the database. Each link carries the time it was last
+ * seen; {@link #prune(int)} drops links and deletes logins older than the configured number of days.
+ * <p>
+ * Joins and leaves are written by a {@link LoginRecordWriter}, never on the thread handling the event.
+ */
+public class LoginHistory {
+
+    private final VelocityPunishmentPlugin plugin;
+    private final ExecutorService service;
+    private final Map<String, Map<UUID, Long>> accountsByAddress = new ConcurrentHashMap<>();
+    private final Map<UUID, Map<String, Long>> addressesByAccount = new ConcurrentHashMap<>();
+    private final LoginRecordWriter writer;
+
+    public LoginHistory(VelocityPunishmentPlugin plugin, ExecutorService service) {
+        this.plugin = plugin;
+        this.service = service;
+        this.writer = new LoginRecordWriter(plugin);
+        plugin.getMetrics().gauge("login-history.accounts", addressesByAccount::size);
+        plugin.getMetrics().gauge("login-history.addresses", accountsByAddress::size);
+    }
+
+    /**
+     * Loads the links of the last {@code days} days into the index.
+     *
+     * @param days the number of days
+     * @return a {@link CompletableFuture} containing the number of accounts in the index
+     */
+    public CompletableFuture<Integer> load(int days) {
+        return executeAsync(() -> {
+            plugin.getQueryExecutor().statement(SqlStatement.SELECT_LOGIN_ADDRESSES).query(resultSet -> {
+                while (resultSet.next()) {
+                    link(Util.parseUuid(resultSet.getString(1)), resultSet.getString(2), resultSet.getTimestamp(3).getTime());
+                }
+                return null;
+            }, Timestamp.valueOf(LocalDateTime.now().minusDays(days)));
+            return addressesByAccount.size();
+        }, service);
+    }
+
+    /**
+     * Drops all links last seen more than {@code days} days ago from the index and deletes the logins older than that
+     * from the database.
+     *
+     * @param days the number of days
+     * @return a {@link CompletableFuture} containing the number of links dropped from the index
+     */
+    public CompletableFuture<Integer> prune(int days) {
+        return executeAsync(() -> {
+            Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(days));
+            long cutoffMillis = cutoff.getTime();
+            int[] dropped = {0};
+            for (String address : accountsByAddress.keySet()) {
+                accountsByAddress.computeIfPresent(address, (key, accounts) -> {
+                    accounts.values().removeIf(lastSeen -> lastSeen < cutoffMillis);
+                    return accounts.isEmpty() ? null : accounts;
+                });
+            }
+            for (UUID account : addressesByAccount.keySet()) {
+                addressesByAccount.computeIfPresent(account, (key, addresses) -> {
+                    int size = addresses.size();
+                    addresses.values().removeIf(lastSeen -> lastSeen < cutoffMillis);
+                    dropped[0] += size - addresses.size();
+                    return addresses.isEmpty() ? null : addresses;
+                });
+            }
+            plugin.getQueryExecutor().statement(SqlStatement.DELETE_LOGINS_BEFORE).update(cutoff);
+            return dropped[0];
+        }, service);
+    }
+
+    /**
+     * Links the player to the address they connect from and queues the join to be written.
+     *
+     * @param player the player logging in
+     */
+    public void record(Player player) {
+        if (player.getRemoteAddress() == null) {
+            return;
+        }
+        String address = key(player.getRemoteAddress().getAddress());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        link(player.getUniqueId(), address, now.getTime());
+        writer.add(new LoginRecordWriter.LoginRecord(player.getUniqueId(), address, now, LoginRecordWriter.Event.JOIN));
+    }
+
+    @Subscribe(order = PostOrder.LAST)
+    public void onDisconnect(DisconnectEvent event) {
+        if (event.getLoginStatus() != DisconnectEvent.LoginStatus.SUCCESSFUL_LOGIN || !plugin.getAltDetectionData().isEnabled()) {
+            return;
+        }
+        Player player = event.getPlayer();
+        if (player.getRemoteAddress() == null) {
+            return;
+        }
+        writer.add(new LoginRecordWriter.LoginRecord(player.getUniqueId(), key(player.getRemoteAddress().getAddress()),
+                Timestamp.valueOf(LocalDateTime.now()), LoginRecordWriter.Event.LEAVE));
+    }
+
+    /**
+     * Stops recording and waits for the queued records to be written.
+     */
+    public void close() throws InterruptedException {
+        writer.close();
+    }
+
+    /**
+     * Finds all accounts which logged in from an address {@code player} also logged in from.
+     *
+     * @param player the player
+     * @return the linked accounts, not containing {@code player}
+     */
+    public Set<UUID> alts(UUID player) {
+        Map<String, Long> addresses = addressesByAccount.get(player);
+        if (addresses == null) {
+            return Set.of();
+        }
+        Set<UUID> alts = new HashSet<>();
+        for (String address : addresses.keySet()) {
+            alts.addAll(accountsByAddress.getOrDefault(address, Map.of()).keySet());
+        }
+        alts.remove(player);
+        return alts;
+    }
+
+    /**
+     * Finds the accounts linked to {@code player} like {@link #alts(UUID)}, most recently seen first.
+     *
+     * @param player the player
+     * @param limit  the maximum number of accounts
+     * @return at most {@code limit} linked accounts, not containing {@code player}
+     */
+    public List<UUID> recentAlts(UUID player, int limit) {
+        Map<String, Long> addresses = addressesByAccount.get(player);
+        if (addresses == null) {
+            return List.of();
+        }
+        Map<UUID, Long> lastSeen = new HashMap<>();
+        for (String address : addresses.keySet()) {
+            accountsByAddress.getOrDefault(address, Map.of()).forEach((account, seen) -> lastSeen.merge(account, seen, Math::max));
+        }
+        lastSeen.remove(player);
+        return lastSeen.entrySet().stream()
+                .sorted(Map.Entry.<UUID, Long>comparingByValue().reversed())
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private void link(UUID player, String address, long seen) {
+        accountsByAddress.compute(address, (key, accounts) -> {
+            accounts = accounts == null ? new ConcurrentHashMap<>() : accounts;
+            accounts.merge(player, seen, Math::max);
+            return accounts;
+        });
+        addressesByAccount.compute(player, (key, addresses) -> {
+            addresses = addresses == null ? new ConcurrentHashMap<>() : addresses;
+            addresses.merge(address, seen, Math::max);
+            return addresses;
+        });
+    }
+
+    private static String key(InetAddress address) {
+        try {
+            return InetAddress.getByAddress(AddressRange.bytes(address)).getHostAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
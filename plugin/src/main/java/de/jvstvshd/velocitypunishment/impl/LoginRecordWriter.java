@@ -0,0 +1,183 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.impl;
+
+import de.jvstvshd.velocitypunishment.VelocityPunishmentPlugin;
+import de.jvstvshd.velocitypunishment.api.metrics.Counter;
+import de.jvstvshd.velocitypunishment.internal.Util;
+import de.jvstvshd.velocitypunishment.sql.SqlStatement;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes join and leave records of players in the background. Records are put into a bounded ring buffer and written
+ * by a single thread in multi-row inserts of up to {@value #MAX_BATCH_SIZE} rows, so recording a login never waits
+ * for the database.
+ * <p>
+ * If the database falls behind and the buffer fills up, records are dropped instead of blocking the caller: leave
+ * records once the buffer is three quarters full, join records once it is full. Dropped records are counted in the
+ * {@code login-history.dropped} counter.
+ */
+public class LoginRecordWriter implements AutoCloseable {
+
+    private static final int CAPACITY = 8192;
+    private static final int MAX_BATCH_SIZE = 256;
+    /**
+     * The row counts inserts are split into. Using only a few sizes keeps the number of distinct statements, and
+     * thereby of prepared statements cached by the database, small.
+     */
+    private static final int[] CHUNK_SIZES = {256, 64, 16, 4, 1};
+    private static final long FLUSH_INTERVAL_MILLIS = 1000;
+
+    private final VelocityPunishmentPlugin plugin;
+    private final BlockingQueue<LoginRecord> buffer = new ArrayBlockingQueue<>(CAPACITY);
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public LoginRecordWriter(VelocityPunishmentPlugin plugin) {
+        this.plugin = plugin;
+        this.written = plugin.getMetrics().counter("login-history.written");
+        this.dropped = plugin.getMetrics().counter("login-history.dropped");
+        this.failed = plugin.getMetrics().counter("login-history.failed");
+        plugin.getMetrics().gauge("login-history.buffered", buffer::size);
+        this.thread = new Thread(this::run, "velocity-punishment-login-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queues a record to be written. Never blocks.
+     *
+     * @param record the record
+     * @return whether the record was queued; if not, it was dropped
+     */
+    public boolean add(LoginRecord record) {
+        if (!running || (record.event() == Event.LEAVE && buffer.size() >= CAPACITY / 4 * 3) || !buffer.offer(record)) {
+            dropped.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private void run() {
+        List<LoginRecord> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (running || !buffer.isEmpty()) {
+            try {
+                LoginRecord first = buffer.poll(FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, MAX_BATCH_SIZE - 1);
+            } catch (InterruptedException e) {
+                buffer.drainTo(batch, MAX_BATCH_SIZE);
+            }
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<LoginRecord> batch) {
+        int offset = 0;
+        while (offset < batch.size()) {
+            int size = chunkSize(batch.size() - offset);
+            List<LoginRecord> chunk = batch.subList(offset, offset + size);
+            try {
+                insert(chunk);
+                written.add(size);
+            } catch (SQLException e) {
+                failed.add(size);
+                plugin.getLogger().error("Could not write " + size + " login records", e);
+            }
+            offset += size;
+        }
+    }
+
+    private void insert(List<LoginRecord> chunk) throws SQLException {
+        Object[] parameters = new Object[chunk.size() * 4];
+        for (int i = 0; i < chunk.size(); i++) {
+            LoginRecord record = chunk.get(i);
+            parameters[i * 4] = Util.trimUuid(record.player());
+            parameters[i * 4 + 1] = record.address();
+            parameters[i * 4 + 2] = record.time();
+            parameters[i * 4 + 3] = record.event().getName();
+        }
+        plugin.getQueryExecutor().statement(SqlStatement.INSERT_LOGINS, ", (?, ?, ?, ?)".repeat(chunk.size() - 1))
+                .update(parameters);
+    }
+
+    private static int chunkSize(int remaining) {
+        for (int size : CHUNK_SIZES) {
+            if (size <= remaining) {
+                return size;
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * Stops accepting records and waits up to five seconds for the buffered records to be written.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        thread.interrupt();
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    public enum Event {
+        JOIN("join"),
+        LEAVE("leave");
+
+        private final String name;
+
+        Event(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * @param player  the player
+     * @param address the address the player connected from
+     * @param time    the time the player joined or left
+     * @param event   whether the player joined or left
+     */
+    public record LoginRecord(UUID player, String address, Timestamp time, Event event) {
+    }
+}
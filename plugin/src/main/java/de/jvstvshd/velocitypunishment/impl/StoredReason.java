@@ -0,0 +1,164 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.impl;
+
+import com.google.gson.JsonParseException;
+import de.jvstvshd.velocitypunishment.internal.ReasonTemplates;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+
+/**
+ * The reason of a punishment together with its stored form. Reasons are stored as JSON components, which keeps hover
+ * and click events; rows written before contain legacy strings with section signs and are still read. Reasons taken
+ * from a {@link ReasonTemplates reason template} only store the id of the template. Next to the JSON, the plain text of
+ * the reason is stored for searching.
+ * <p>
+ * Reasons loaded from the database are only deserialized when {@link #component()} is called for the first time,
+ * which usually only happens if the reason is shown to someone. Reasons created from a component are only serialized
+ * when they are stored.
+ */
+public final class StoredReason {
+
+    private final String templateId;
+    private volatile String serialized;
+    private volatile Component component;
+
+    private StoredReason(String serialized, Component component, String templateId) {
+        this.serialized = serialized;
+        this.component = component;
+        this.templateId = templateId;
+    }
+
+    /**
+     * @param component the reason
+     * @return a reason which will be serialized when it is stored
+     */
+    public static StoredReason of(Component component) {
+        return new StoredReason(null, component, null);
+    }
+
+    /**
+     * @param template the template
+     * @return a reason only storing the id of {@code template}
+     */
+    public static StoredReason of(ReasonTemplates.Template template) {
+        return new StoredReason(null, template.reason(), template.id());
+    }
+
+    /**
+     * @param serialized the reason as read from the database, either JSON or a legacy string
+     * @param templateId the id of the reason template as read from the database, or null
+     * @param templates  the templates to take the reason from if {@code templateId} is not null
+     * @return a reason which will be deserialized when it is used
+     */
+    public static StoredReason fromDatabase(String serialized, String templateId, ReasonTemplates templates) {
+        if (templateId != null) {
+            return new StoredReason(null, templates.reason(templateId), templateId);
+        }
+        return new StoredReason(serialized == null ? "" : serialized, null, null);
+    }
+
+    /**
+     * Deserializes the stored form on the first call. Concurrent first calls may both deserialize it, which is
+     * harmless as components are immutable.
+     *
+     * @return the reason as component
+     */
+    public Component component() {
+        Component component = this.component;
+        if (component == null) {
+            component = deserialize(serialized);
+            this.component = component;
+        }
+        return component;
+    }
+
+    /**
+     * @return the form this reason is stored in, or null if only the {@link #templateId() template id} is stored
+     */
+    public String serialized() {
+        if (templateId != null) {
+            return null;
+        }
+        String serialized = this.serialized;
+        if (serialized == null) {
+            serialized = serialize(component);
+            this.serialized = serialized;
+        }
+        return serialized;
+    }
+
+    /**
+     * @return the plain text of the reason as stored for searching, or null if only the {@link #templateId() template id}
+     * is stored
+     */
+    public String plainText() {
+        return templateId != null ? null : plainText(component());
+    }
+
+    /**
+     * @return the id of the reason template or null, if this reason is no template
+     */
+    public String templateId() {
+        return templateId;
+    }
+
+    public static String serialize(Component component) {
+        return GsonComponentSerializer.gson().serialize(component);
+    }
+
+    public static String plainText(Component component) {
+        return PlainTextComponentSerializer.plainText().serialize(component);
+    }
+
+    /**
+     * Deserializes a stored reason. Anything that is not a JSON object or cannot be read as component is treated as
+     * legacy string.
+     *
+     * @param serialized the stored reason
+     * @return the reason as component
+     */
+    public static Component deserialize(String serialized) {
+        if (serialized.startsWith("{") && serialized.endsWith("}")) {
+            try {
+                return GsonComponentSerializer.gson().deserialize(serialized);
+            } catch (JsonParseException | IllegalStateException e) {
+                //legacy reason that happens to look like JSON
+            }
+        }
+        return LegacyComponentSerializer.legacySection().deserialize(serialized);
+    }
+
+    @Override
+    public String toString() {
+        return "StoredReason{" +
+                "serialized=" + serialized +
+                ", templateId=" + templateId +
+                ", deserialized=" + (component != null) +
+                '}';
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.internal;
+
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * An IPv4 or IPv6 network in CIDR notation, e.g. {@code 203.0.113.0/24}. The host bits of the network are always
+ * zero, so equal networks written differently are equal. IPv4-mapped IPv6 addresses are treated as IPv4 addresses.
+ */
+public final class AddressRange {
+
+    private static final Pattern IPV4_PATTERN = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+
+    private final byte[] network;
+    private final int prefixLength;
+
+    private AddressRange(byte[] network, int prefixLength) {
+        this.network = network;
+        this.prefixLength = prefixLength;
+    }
+
+    /**
+     * Parses a network in CIDR notation or a single address. Host names are rejected and never resolved.
+     *
+     * @param source the network, e.g. {@code 203.0.113.0/24}, {@code 2001:db8::/32} or {@code 203.0.113.7}
+     * @return the network
+     * @throws IllegalArgumentException if {@code source} is no valid address or network
+     */
+    public static AddressRange parse(String source) {
+        int slash = source.indexOf('/');
+        String address = slash == -1 ? source : source.substring(0, slash);
+        byte[] bytes = parseAddress(address);
+        int prefixLength = bytes.length * 8;
+        if (slash != -1) {
+            try {
+                prefixLength = Integer.parseInt(source.substring(slash + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("invalid prefix length: " + source.substring(slash + 1));
+            }
+            if (prefixLength < 0 || prefixLength > bytes.length * 8) {
+                throw new IllegalArgumentException("prefix length must be between 0 and " + bytes.length * 8 + ": " + prefixLength);
+            }
+        }
+        return new AddressRange(mask(bytes, prefixLength), prefixLength);
+    }
+
+    /**
+     * @param address the address
+     * @return a network containing only {@code address}
+     */
+    public static AddressRange of(InetAddress address) {
+        byte[] bytes = bytes(address);
+        return new AddressRange(bytes, bytes.length * 8);
+    }
+
+    /**
+     * Returns the address in the form used by {@link AddressTrie}: 4 bytes for IPv4 and IPv4-mapped IPv6 addresses,
+     * 16 bytes for all other IPv6 addresses.
+     *
+     * @param address the address
+     * @return the bytes of {@code address}
+     */
+    public static byte[] bytes(InetAddress address) {
+        byte[] bytes = address.getAddress();
+        if (bytes.length == 16 && isIpv4Mapped(bytes)) {
+            return Arrays.copyOfRange(bytes, 12, 16);
+        }
+        return bytes;
+    }
+
+    private static byte[] parseAddress(String address) {
+        if (IPV4_PATTERN.matcher(address).matches()) {
+            String[] parts = address.split("\\.");
+            byte[] bytes = new byte[4];
+            for (int i = 0; i < 4; i++) {
+                int part = Integer.parseInt(parts[i]);
+                if (part > 255) {
+                    throw new IllegalArgumentException("invalid IPv4 address: " + address);
+                }
+                bytes[i] = (byte) part;
+            }
+            return bytes;
+        }
+        // host names cannot contain ':', so this never results in a DNS lookup
+        if (address.indexOf(':') == -1 || address.indexOf('%') != -1) {
+            throw new IllegalArgumentException("invalid address: " + address);
+        }
+        try {
+            InetAddress inetAddress = InetAddress.getByName(address);
+            if (!(inetAddress instanceof Inet6Address) && !(inetAddress instanceof Inet4Address)) {
+                throw new IllegalArgumentException("invalid address: " + address);
+            }
+            return bytes(inetAddress);
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("invalid IPv6 address: " + address);
+        }
+    }
+
+    private static boolean isIpv4Mapped(byte[] bytes) {
+        for (int i = 0; i < 10; i++) {
+            if (bytes[i] != 0) {
+                return false;
+            }
+        }
+        return bytes[10] == (byte) 0xff && bytes[11] == (byte) 0xff;
+    }
+
+    private static byte[] mask(byte[] bytes, int prefixLength) {
+        byte[] masked = bytes.clone();
+        for (int i = 0; i < masked.length; i++) {
+            int bits = prefixLength - i * 8;
+            if (bits <= 0) {
+                masked[i] = 0;
+            } else if (bits < 8) {
+                masked[i] &= (byte) (0xff << (8 - bits));
+            }
+        }
+        return masked;
+    }
+
+    /**
+     * @return the network address; the returned array must not be modified
+     */
+    public byte[] network() {
+        return network;
+    }
+
+    public int prefixLength() {
+        return prefixLength;
+    }
+
+    /**
+     * @param address the address
+     * @return whether {@code address} is part of this network
+     */
+    public boolean contains(InetAddress address) {
+        return Arrays.equals(network, mask(bytes(address), prefixLength));
+    }
+
+    public boolean isIpv6() {
+        return network.length == 16;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof AddressRange that)) return false;
+        return prefixLength == that.prefixLength && Arrays.equals(network, that.network);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(network) + prefixLength;
+    }
+
+    /**
+     * @return this network in CIDR notation; the form it is stored in
+     */
+    @Override
+    public String toString() {
+        try {
+            return InetAddress.getByAddress(network).getHostAddress() + "/" + prefixLength;
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.internal;
+
+import java.util.function.Predicate;
+
+/**
+ * A binary radix (Patricia) trie mapping networks of one address family to values. Chains of nodes with a single child
+ * are compressed into one node, so a lookup visits at most one node per distinct prefix on the path of the address and
+ * takes O(address length) bit comparisons regardless of the number of entries.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @param <V> the type of the values
+ */
+public class AddressTrie<V> {
+
+    private final int addressLength;
+    private Node<V> root;
+    private int size;
+
+    /**
+     * @param addressLength the length of the addresses in bytes, 4 for IPv4 and 16 for IPv6
+     */
+    public AddressTrie(int addressLength) {
+        this.addressLength = addressLength;
+    }
+
+    /**
+     * Maps a network to a value, replacing the previous value of that network.
+     *
+     * @param range the network
+     * @param value the value
+     * @return the previous value or null, if the network had no value
+     */
+    public V put(AddressRange range, V value) {
+        checkRange(range);
+        byte[] key = range.network();
+        int length = range.prefixLength();
+        Node<V> parent = null;
+        Node<V> node = root;
+        while (node != null) {
+            int common = commonPrefix(key, length, node.key, node.length);
+            if (common < node.length) {
+                Node<V> inserted;
+                if (common == length) {
+                    inserted = new Node<>(key, length, value);
+                    inserted.setChild(bit(node.key, length), node);
+                } else {
+                    inserted = new Node<>(key, common, null);
+                    inserted.setChild(bit(node.key, common), node);
+                    inserted.setChild(bit(key, common), new Node<>(key, length, value));
+                }
+                replace(parent, node, inserted);
+                size++;
+                return null;
+            }
+            if (node.length == length) {
+                V previous = node.value;
+                node.value = value;
+                if (previous == null) {
+                    size++;
+                }
+                return previous;
+            }
+            int bit = bit(key, node.length);
+            Node<V> child = node.child(bit);
+            if (child == null) {
+                node.setChild(bit, new Node<>(key, length, value));
+                size++;
+                return null;
+            }
+            parent = node;
+            node = child;
+        }
+        root = new Node<>(key, length, value);
+        size++;
+        return null;
+    }
+
+    /**
+     * Removes the value of a network. Nodes which are no longer needed are merged with their neighbours again.
+     *
+     * @param range the network
+     * @return the removed value or null, if the network had no value
+     */
+    public V remove(AddressRange range) {
+        checkRange(range);
+        byte[] key = range.network();
+        int length = range.prefixLength();
+        Node<V> grandparent = null;
+        Node<V> parent = null;
+        Node<V> node = root;
+        while (node != null && node.length <= length && commonPrefix(key, length, node.key, node.length) == node.length) {
+            if (node.length == length) {
+                V previous = node.value;
+                if (previous == null) {
+                    return null;
+                }
+                node.value = null;
+                size--;
+                compact(grandparent, parent, node);
+                return previous;
+            }
+            grandparent = parent;
+            parent = node;
+            node = node.child(bit(key, node.length));
+        }
+        return null;
+    }
+
+    /**
+     * Finds the value of the most specific network containing {@code address} that is accepted by {@code filter}.
+     *
+     * @param address the address, in the form returned by {@link AddressRange#bytes(java.net.InetAddress)}
+     * @param filter  the filter, e.g. to skip expired entries
+     * @return the value or null, if no network accepted by the filter contains the address
+     */
+    public V find(byte[] address, Predicate<? super V> filter) {
+        if (address.length != addressLength) {
+            return null;
+        }
+        int bits = addressLength * 8;
+        V found = null;
+        Node<V> node = root;
+        while (node != null && commonPrefix(address, bits, node.key, node.length) == node.length) {
+            if (node.value != null && filter.test(node.value)) {
+                found = node.value;
+            }
+            if (node.length == bits) {
+                break;
+            }
+            node = node.child(bit(address, node.length));
+        }
+        return found;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void compact(Node<V> grandparent, Node<V> parent, Node<V> node) {
+        if (node.zero != null && node.one != null) {
+            return;
+        }
+        Node<V> child = node.zero != null ? node.zero : node.one;
+        replace(parent, node, child);
+        // a branch node without a value is only kept while it has two children
+        if (child == null && parent != null && parent.value == null) {
+            replace(grandparent, parent, parent.zero != null ? parent.zero : parent.one);
+        }
+    }
+
+    private void replace(Node<V> parent, Node<V> node, Node<V> replacement) {
+        if (parent == null) {
+            root = replacement;
+        } else if (parent.zero == node) {
+            parent.zero = replacement;
+        } else {
+            parent.one = replacement;
+        }
+    }
+
+    private void checkRange(AddressRange range) {
+        if (range.network().length != addressLength) {
+            throw new IllegalArgumentException("expected an address of " + addressLength + " bytes: " + range);
+        }
+    }
+
+    private static int bit(byte[] key, int index) {
+        return (key[index >>> 3] >>> (7 - (index & 7))) & 1;
+    }
+
+    private static int commonPrefix(byte[] a, int aLength, byte[] b, int bLength) {
+        int max = Math.min(aLength, bLength);
+        int common = 0;
+        for (int i = 0; common < max; i++) {
+            int diff = (a[i] ^ b[i]) & 0xff;
+            if (diff != 0) {
+                common += Integer.numberOfLeadingZeros(diff) - 24;
+                break;
+            }
+            common += 8;
+        }
+        return Math.min(common, max);
+    }
+
+    private static final class Node<V> {
+
+        private final byte[] key;
+        private final int length;
+        private V value;
+        private Node<V> zero;
+        private Node<V> one;
+
+        private Node(byte[] key, int length, V value) {
+            this.key = key;
+            this.length = length;
+            this.value = value;
+        }
+
+        private Node<V> child(int bit) {
+            return bit == 0 ? zero : one;
+        }
+
+        private void setChild(int bit, Node<V> child) {
+            if (bit == 0) {
+                zero = child;
+            } else {
+                one = child;
+            }
+        }
+    }
+}
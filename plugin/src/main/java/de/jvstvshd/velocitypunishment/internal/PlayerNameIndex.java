@@ -0,0 +1,106 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.internal;
+
+import com.velocitypowered.api.event.PostOrder;
+import com.velocitypowered.api.event.Subscribe;
+import com.velocitypowered.api.event.connection.DisconnectEvent;
+import com.velocitypowered.api.event.connection.PostLoginEvent;
+import com.velocitypowered.api.proxy.Player;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * A sorted index of the names of all players currently connected to the proxy. The index is maintained incrementally
+ * through {@link PostLoginEvent} and {@link DisconnectEvent}, so command suggestions can be served by a range scan over
+ * the lower-cased names instead of collecting and filtering all online players on every request.
+ */
+public class PlayerNameIndex {
+
+    private final ConcurrentNavigableMap<String, Player> players = new ConcurrentSkipListMap<>();
+
+    /**
+     * Adds all given players to this index, e.g. the players which were already online when the plugin was loaded.
+     *
+     * @param players the players to add
+     */
+    public void addAll(Collection<Player> players) {
+        for (Player player : players) {
+            add(player);
+        }
+    }
+
+    public void add(Player player) {
+        players.put(key(player.getUsername()), player);
+    }
+
+    public void remove(Player player) {
+        players.remove(key(player.getUsername()), player);
+    }
+
+    @Subscribe(order = PostOrder.FIRST)
+    public void onPostLogin(PostLoginEvent event) {
+        add(event.getPlayer());
+    }
+
+    @Subscribe(order = PostOrder.LAST)
+    public void onDisconnect(DisconnectEvent event) {
+        remove(event.getPlayer());
+    }
+
+    /**
+     * Finds the names of all online players whose name starts with the given prefix, ignoring case. The names are returned
+     * in alphabetical order.
+     *
+     * @param prefix the prefix the names should start with; an empty string matches all players
+     * @return a new list containing the matching names
+     */
+    public List<String> findByPrefix(String prefix) {
+        String lowerPrefix = key(prefix);
+        ConcurrentNavigableMap<String, Player> range = lowerPrefix.isEmpty() ? players : players.tailMap(lowerPrefix);
+        List<String> names = new ArrayList<>();
+        for (Player player : range.values()) {
+            String name = player.getUsername();
+            if (!name.regionMatches(true, 0, lowerPrefix, 0, lowerPrefix.length())) {
+                break;
+            }
+            names.add(name);
+        }
+        return names;
+    }
+
+    public int size() {
+        return players.size();
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
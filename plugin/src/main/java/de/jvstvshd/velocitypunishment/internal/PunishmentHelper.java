@@ -29,10 +29,9 @@ import com.mojang.brigadier.context.CommandContext;
 import com.velocitypowered.api.command.CommandSource;
 import com.velocitypowered.api.command.SimpleCommand;
 import de.jvstvshd.velocitypunishment.api.message.MessageProvider;
-import de.jvstvshd.velocitypunishment.api.punishment.Punishment;
-import de.jvstvshd.velocitypunishment.api.punishment.PunishmentDuration;
-import de.jvstvshd.velocitypunishment.api.punishment.TemporalPunishment;
+import de.jvstvshd.velocitypunishment.api.punishment.*;
 import de.jvstvshd.velocitypunishment.api.punishment.util.PlayerResolver;
+import de.jvstvshd.velocitypunishment.impl.DefaultPunishmentManager;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.format.NamedTextColor;
@@ -97,6 +96,43 @@ public class PunishmentHelper {
         return LegacyComponentSerializer.legacyAmpersand().deserialize(builder.toString());
     }
 
+    /**
+     * Looks up the reason template the argument at {@code argumentIndex} refers to. If there is no such template, the
+     * source is told so.
+     *
+     * @return the template or {@link Optional#empty()}, if there is no template with this id
+     */
+    public Optional<ReasonTemplates.Template> parseTemplate(int argumentIndex, SimpleCommand.Invocation invocation, ReasonTemplates templates, MessageProvider provider) {
+        String argument = invocation.arguments()[argumentIndex];
+        Optional<ReasonTemplates.Template> template = templates.fromArgument(argument);
+        if (template.isEmpty()) {
+            invocation.source().sendMessage(provider.provide("command.punishment.unknown-template", invocation.source(), true,
+                    Component.text(argument).color(NamedTextColor.YELLOW)).color(NamedTextColor.RED));
+        }
+        return template;
+    }
+
+    /**
+     * @return whether the reason starting at {@code startIndex} is a single argument referring to a reason template
+     */
+    public boolean isTemplateReason(int startIndex, SimpleCommand.Invocation invocation) {
+        return invocation.arguments().length == startIndex + 1 && ReasonTemplates.isTemplate(invocation.arguments()[startIndex]);
+    }
+
+    public Ban createBan(PunishmentManager punishmentManager, UUID uuid, ReasonTemplates.Template template, PunishmentDuration duration) {
+        if (punishmentManager instanceof DefaultPunishmentManager defaultPunishmentManager) {
+            return defaultPunishmentManager.createBan(uuid, template, duration);
+        }
+        return punishmentManager.createBan(uuid, template.reason(), duration);
+    }
+
+    public Mute createMute(PunishmentManager punishmentManager, UUID uuid, ReasonTemplates.Template template, PunishmentDuration duration) {
+        if (punishmentManager instanceof DefaultPunishmentManager defaultPunishmentManager) {
+            return defaultPunishmentManager.createMute(uuid, template, duration);
+        }
+        return punishmentManager.createMute(uuid, template.reason(), duration);
+    }
+
     public TextComponent parseComponent(int startIndex, CommandContext<CommandSource> context, TextComponent def) {
         if (context.getArguments().size() <= startIndex) {
             return def;
@@ -0,0 +1,158 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.internal;
+
+import de.jvstvshd.velocitypunishment.api.punishment.PunishmentDuration;
+import de.jvstvshd.velocitypunishment.config.ReasonTemplateData;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.slf4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * The predefined reasons of the configuration, usable as {@code #<id>} instead of a reason in the punishment commands.
+ * Punishments with a template only store its id; the reason of a template is parsed once when the configuration is
+ * loaded and shared by all punishments using it.
+ */
+public class ReasonTemplates {
+
+    private static final Pattern ID_PATTERN = Pattern.compile("[a-z0-9_-]{1,64}");
+    private static final char PREFIX = '#';
+
+    private final Map<String, Template> templates;
+
+    private ReasonTemplates(Map<String, Template> templates) {
+        this.templates = templates;
+    }
+
+    public static ReasonTemplates empty() {
+        return new ReasonTemplates(Map.of());
+    }
+
+    /**
+     * Parses the templates of the configuration. Invalid templates are logged and skipped.
+     *
+     * @param data   the templates of the configuration, mapped by their id
+     * @param logger the logger to log invalid templates to
+     * @return the parsed templates
+     */
+    public static ReasonTemplates load(Map<String, ReasonTemplateData> data, Logger logger) {
+        if (data == null) {
+            return empty();
+        }
+        Map<String, Template> templates = new HashMap<>();
+        for (Map.Entry<String, ReasonTemplateData> entry : data.entrySet()) {
+            String id = entry.getKey().toLowerCase(Locale.ROOT);
+            if (!ID_PATTERN.matcher(id).matches()) {
+                logger.warn("Skipping reason template '{}': ids may only contain a-z, 0-9, '_' and '-' and must not be longer than 64 characters", entry.getKey());
+                continue;
+            }
+            ReasonTemplateData templateData = entry.getValue();
+            PunishmentDuration duration = null;
+            if (templateData.getDuration() != null && !templateData.getDuration().isBlank()) {
+                try {
+                    duration = templateData.getDuration().equalsIgnoreCase("permanent") ? PunishmentDuration.permanent()
+                            : PunishmentDuration.parse(templateData.getDuration());
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Skipping reason template '{}': invalid duration: {}", id, e.getMessage());
+                    continue;
+                }
+            }
+            Component reason = LegacyComponentSerializer.legacyAmpersand().deserialize(templateData.getReason() == null ? id : templateData.getReason());
+            templates.put(id, new Template(id, reason, duration));
+        }
+        return new ReasonTemplates(Map.copyOf(templates));
+    }
+
+    /**
+     * @param argument a command argument
+     * @return whether the argument refers to a template, i.e. starts with '#'
+     */
+    public static boolean isTemplate(String argument) {
+        return argument.length() > 1 && argument.charAt(0) == PREFIX;
+    }
+
+    /**
+     * @param argument a command argument referring to a template, e.g. {@code #hacking}
+     * @return the template or {@link Optional#empty()}, if there is no such template
+     */
+    public Optional<Template> fromArgument(String argument) {
+        return get(argument.substring(1).toLowerCase(Locale.ROOT));
+    }
+
+    public Optional<Template> get(String id) {
+        return Optional.ofNullable(templates.get(id));
+    }
+
+    /**
+     * Returns the reason of a stored template id. Punishments whose template was removed from the configuration show
+     * the id instead.
+     *
+     * @param id the id of the template
+     * @return the reason of the template
+     */
+    public Component reason(String id) {
+        Template template = templates.get(id);
+        return template == null ? Component.text(PREFIX + id).color(NamedTextColor.DARK_RED) : template.reason();
+    }
+
+    /**
+     * @param text the text to search for
+     * @return the ids of all templates whose reason contains {@code text} in its plain text, ignoring case
+     */
+    public List<String> idsContaining(String text) {
+        String lowerText = text.toLowerCase(Locale.ROOT);
+        List<String> ids = new ArrayList<>();
+        for (Template template : templates.values()) {
+            if (PlainTextComponentSerializer.plainText().serialize(template.reason()).toLowerCase(Locale.ROOT).contains(lowerText)) {
+                ids.add(template.id());
+            }
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    /**
+     * @param id       the id of the template, stored instead of the reason
+     * @param reason   the parsed reason
+     * @param duration the duration of the template, or null
+     */
+    public record Template(String id, Component reason, PunishmentDuration duration) {
+
+        public Optional<PunishmentDuration> getDuration() {
+            return Optional.ofNullable(duration);
+        }
+    }
+}
@@ -25,15 +25,15 @@
 package de.jvstvshd.velocitypunishment.internal;
 
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Sets;
 import com.velocitypowered.api.command.CommandSource;
 import com.velocitypowered.api.command.SimpleCommand;
-import com.velocitypowered.api.proxy.Player;
-import com.velocitypowered.api.proxy.ProxyServer;
 import de.jvstvshd.velocitypunishment.VelocityPunishmentPlugin;
+import de.jvstvshd.velocitypunishment.api.event.PrePunishmentEvent;
+import de.jvstvshd.velocitypunishment.api.event.PunishmentVetoedException;
 import de.jvstvshd.velocitypunishment.api.message.MessageProvider;
 import de.jvstvshd.velocitypunishment.api.punishment.Punishment;
 import de.jvstvshd.velocitypunishment.api.punishment.TemporalPunishment;
+import de.jvstvshd.velocitypunishment.api.punishment.util.PunishmentSelector;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.event.ClickEvent;
@@ -45,53 +45,10 @@ import java.util.*;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
-import java.util.function.BiConsumer;
-import java.util.function.BinaryOperator;
-import java.util.function.Function;
-import java.util.function.Supplier;
-import java.util.stream.Collector;
 import java.util.stream.Collectors;
 
 public class Util {
 
-    public static List<String> getPlayerNames(Collection<Player> players) {
-        return players.stream().collect(new Collector<Player, List<Player>, List<String>>() {
-            @Override
-            public Supplier<List<Player>> supplier() {
-                return ArrayList::new;
-            }
-
-            @Override
-            public BiConsumer<List<Player>, Player> accumulator() {
-                return List::add;
-            }
-
-            @Override
-            public BinaryOperator<List<Player>> combiner() {
-                return (players, players2) -> {
-                    players.addAll(players2);
-                    return players;
-                };
-            }
-
-            @Override
-            public Function<List<Player>, List<String>> finisher() {
-                return players -> {
-                    List<String> strings = new ArrayList<>();
-                    for (Player player : players) {
-                        strings.add(player.getUsername());
-                    }
-                    return strings;
-                };
-            }
-
-            @Override
-            public Set<Characteristics> characteristics() {
-                return Sets.immutableEnumSet(Characteristics.UNORDERED);
-            }
-        });
-    }
-
     public static UUID parseUuid(String uuidString) {
         try {
             return UUID.fromString(uuidString);
@@ -119,11 +76,11 @@ public class Util {
         return cf;
     }
 
+    /**
+     * @see PunishmentSelector#longest(Iterable)
+     */
     public static <T extends TemporalPunishment> T getLongestPunishment(List<T> list) {
-        if (list.isEmpty())
-            return null;
-        List<T> sorted = sortPunishments(list);
-        return sorted.get(sorted.size() - 1);
+        return PunishmentSelector.longest(list);
     }
 
     public static <T extends TemporalPunishment> List<T> sortPunishments(List<T> list) {
@@ -143,6 +100,33 @@ public class Util {
         return origin.toString().toLowerCase().replace("-", "");
     }
 
+    /**
+     * @param throwable the reason a punishment failed
+     * @return whether a listener of {@link PrePunishmentEvent} denied the punishment
+     */
+    public static boolean isVetoed(Throwable throwable) {
+        while (throwable != null) {
+            if (throwable instanceof PunishmentVetoedException) {
+                return true;
+            }
+            throwable = throwable.getCause();
+        }
+        return false;
+    }
+
+    /**
+     * Tells the source that a punishment failed, either because it was denied by a listener of
+     * {@link PrePunishmentEvent} or because of an internal error, which is printed.
+     */
+    public static void sendPunishmentError(CommandSource source, Throwable throwable, VelocityPunishmentPlugin plugin) {
+        if (isVetoed(throwable)) {
+            source.sendMessage(plugin.getMessageProvider().provide("command.punishment.vetoed", source, true).color(NamedTextColor.RED));
+            return;
+        }
+        source.sendMessage(plugin.getMessageProvider().internalError(source, true));
+        throwable.printStackTrace();
+    }
+
     public static boolean sendErrorMessageIfErrorOccurred(SimpleCommand.Invocation invocation, CommandSource source, UUID uuid, Throwable throwable, VelocityPunishmentPlugin plugin) {
         if (throwable != null) {
             source.sendMessage(plugin.getMessageProvider().internalError(source, true));
@@ -156,14 +140,13 @@ public class Util {
         return false;
     }
 
-    public static List<String> getPlayerNames(SimpleCommand.Invocation invocation, ProxyServer proxyServer) {
+    public static List<String> getPlayerNames(SimpleCommand.Invocation invocation, PlayerNameIndex nameIndex) {
         String[] args = invocation.arguments();
         if (args.length == 0) {
-            return Util.getPlayerNames(proxyServer.getAllPlayers());
+            return nameIndex.findByPrefix("");
         }
         if (args.length == 1) {
-            return Util.getPlayerNames(proxyServer.getAllPlayers())
-                    .stream().filter(s -> s.toLowerCase().startsWith(args[0])).collect(Collectors.toList());
+            return nameIndex.findByPrefix(args[0]);
         }
         return ImmutableList.of();
     }
@@ -0,0 +1,48 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Emitted for every request sent to the Mojang API to resolve a player name or uuid.
+ */
+@Name("velocitypunishment.PlayerResolve")
+@Label("Player Resolve")
+@Category({"Velocity Punishment", "HTTP"})
+@Description("Resolving a player name or uuid through the Mojang API")
+@StackTrace(false)
+public class PlayerResolveEvent extends Event {
+
+    @Label("Query")
+    @Description("Either name or uuid, depending on what was queried")
+    public String query;
+
+    @Label("Input")
+    public String input;
+
+    @Label("Status Code")
+    public int statusCode;
+}
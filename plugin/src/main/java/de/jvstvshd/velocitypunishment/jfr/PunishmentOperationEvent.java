@@ -0,0 +1,54 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Emitted when a punish, cancel or change operation of a punishment completes. The duration spans from submitting the
+ * operation to its executor until it completed, so it includes time spent waiting for a thread.
+ */
+@Name("velocitypunishment.PunishmentOperation")
+@Label("Punishment Operation")
+@Category({"Velocity Punishment", "Punishment"})
+@Description("Punishing, cancelling or changing a punishment")
+@StackTrace(false)
+public class PunishmentOperationEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Player")
+    public String player;
+
+    @Label("Punishment Id")
+    public String punishmentId;
+
+    @Label("Punishment Type")
+    public String punishmentType;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,84 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.jfr;
+
+import jdk.jfr.*;
+
+import java.util.UUID;
+
+/**
+ * Emitted for every SQL statement executed by the plugin. The duration covers the execution of the statement and,
+ * for queries, reading the result set.
+ */
+@Name("velocitypunishment.SqlStatement")
+@Label("SQL Statement")
+@Category({"Velocity Punishment", "Database"})
+@Description("Execution of a SQL statement")
+@StackTrace(false)
+public class SqlStatementEvent extends Event implements AutoCloseable {
+
+    @Label("Statement")
+    @Description("Id of the statement, e.g. punishment.insert")
+    private final String statement;
+
+    @Label("Player")
+    private final String player;
+
+    @Label("Punishment Type")
+    private final String punishmentType;
+
+    @Label("Rows")
+    @Description("Number of rows returned or affected")
+    private int rows = -1;
+
+    private SqlStatementEvent(String statement, UUID player, String punishmentType) {
+        this.statement = statement;
+        this.player = player == null ? null : player.toString();
+        this.punishmentType = punishmentType;
+    }
+
+    /**
+     * Creates and begins a new event. The event is committed when it is closed.
+     *
+     * @param statement      the id of the statement
+     * @param player         the player the statement concerns, or null
+     * @param punishmentType the name of the punishment type the statement concerns, or null
+     * @return the started event
+     */
+    public static SqlStatementEvent start(String statement, UUID player, String punishmentType) {
+        var event = new SqlStatementEvent(statement, player, punishmentType);
+        event.begin();
+        return event;
+    }
+
+    public void setRows(int rows) {
+        this.rows = rows;
+    }
+
+    @Override
+    public void close() {
+        commit();
+    }
+}
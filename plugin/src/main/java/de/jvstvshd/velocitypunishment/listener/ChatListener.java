@@ -30,17 +30,17 @@ import com.velocitypowered.api.event.player.PlayerChatEvent;
 import com.velocitypowered.api.proxy.Player;
 import de.jvstvshd.velocitypunishment.VelocityPunishmentPlugin;
 import de.jvstvshd.velocitypunishment.api.punishment.Mute;
-import de.jvstvshd.velocitypunishment.api.punishment.Punishment;
 import de.jvstvshd.velocitypunishment.api.punishment.StandardPunishmentType;
+import de.jvstvshd.velocitypunishment.api.punishment.util.PunishmentSelector;
 import de.jvstvshd.velocitypunishment.impl.DefaultMute;
-import de.jvstvshd.velocitypunishment.internal.Util;
+import de.jvstvshd.velocitypunishment.jfr.ChatCheckEvent;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -55,14 +55,31 @@ public class ChatListener {
     public ChatListener(VelocityPunishmentPlugin plugin) {
         this.plugin = plugin;
         this.service = plugin.getService();
-        mutes = new HashMap<>();
+        mutes = new ConcurrentHashMap<>();
     }
 
     @Subscribe
     public void onChat(PlayerChatEvent event) {
+        var checkEvent = new ChatCheckEvent();
+        checkEvent.begin();
+        boolean cached = mutes.containsKey(event.getPlayer().getUniqueId());
+        try (var ignored = plugin.getMetrics().timer("listener.chat").start()) {
+            check(event);
+        } finally {
+            if (checkEvent.shouldCommit()) {
+                checkEvent.player = event.getPlayer().getUniqueId().toString();
+                checkEvent.cached = cached;
+                checkEvent.allowed = event.getResult().isAllowed();
+                checkEvent.commit();
+            }
+        }
+    }
+
+    private void check(PlayerChatEvent event) {
         Player player = event.getPlayer();
         MuteContainer container = mutes.get(player.getUniqueId());
         if (container != null) {
+            plugin.getMetrics().counter("cache.mute.hit").increment();
             if (container.getType() == MuteType.NOT_MUTED) {
                 return;
             }
@@ -90,13 +107,14 @@ public class ChatListener {
             event.setResult(PlayerChatEvent.ChatResult.denied());
             event.getPlayer().sendMessage(container.getMute().createFullReason(event.getPlayer()));
         } else {
+            plugin.getMetrics().counter("cache.mute.miss").increment();
             try {
                 update(player.getUniqueId());
             } catch (ExecutionException | InterruptedException | TimeoutException e) {
                 e.printStackTrace();
                 event.getPlayer().sendMessage(plugin.getMessageProvider().internalError(event.getPlayer(), true));
             }
-            onChat(event);
+            check(event);
         }
     }
 
@@ -106,16 +124,23 @@ public class ChatListener {
     }
 
     public void update(UUID uuid) throws ExecutionException, InterruptedException, TimeoutException {
-        List<Punishment> punishments = plugin.getPunishmentManager().getPunishments(uuid,
+        List<Mute> punishments = plugin.getPunishmentManager().<Mute>getPunishments(uuid,
                 service, StandardPunishmentType.MUTE, StandardPunishmentType.PERMANENT_MUTE).get(7, TimeUnit.SECONDS);
         if (!punishments.isEmpty()) {
-            Mute mute = Util.getLongestPunishment(Util.convert(punishments));
+            Mute mute = PunishmentSelector.longest(punishments);
             mutes.put(uuid, new MuteContainer().setMute(mute));
         } else {
             mutes.put(uuid, new MuteContainer());
         }
     }
 
+    /**
+     * Discards all cached mutes. They are loaded again when the corresponding player sends the next chat message.
+     */
+    public void invalidate() {
+        mutes.clear();
+    }
+
     public Map<UUID, MuteContainer> getMutes() {
         return mutes;
     }
@@ -27,19 +27,27 @@ package de.jvstvshd.velocitypunishment.listener;
 import com.velocitypowered.api.event.ResultedEvent;
 import com.velocitypowered.api.event.Subscribe;
 import com.velocitypowered.api.event.connection.LoginEvent;
+import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.ProxyServer;
 import de.jvstvshd.velocitypunishment.VelocityPunishmentPlugin;
 import de.jvstvshd.velocitypunishment.api.punishment.Ban;
 import de.jvstvshd.velocitypunishment.api.punishment.Mute;
 import de.jvstvshd.velocitypunishment.api.punishment.Punishment;
 import de.jvstvshd.velocitypunishment.api.punishment.StandardPunishmentType;
+import de.jvstvshd.velocitypunishment.api.punishment.util.PunishmentSelector;
+import de.jvstvshd.velocitypunishment.config.AltDetectionData;
+import de.jvstvshd.velocitypunishment.impl.AddressBan;
+import de.jvstvshd.velocitypunishment.impl.DefaultPunishmentManager;
 import de.jvstvshd.velocitypunishment.internal.Util;
+import de.jvstvshd.velocitypunishment.jfr.LoginCheckEvent;
+import de.jvstvshd.velocitypunishment.sql.SqlStatement;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 
+import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -48,17 +56,47 @@ public record ConnectListener(VelocityPunishmentPlugin plugin,
 
     @Subscribe
     public void onConnect(LoginEvent event) throws SQLException {
+        var checkEvent = new LoginCheckEvent();
+        checkEvent.begin();
+        int punishments = 0;
+        try (var ignored = plugin.getMetrics().timer("listener.login").start()) {
+            punishments = check(event);
+        } finally {
+            if (checkEvent.shouldCommit()) {
+                checkEvent.player = event.getPlayer().getUniqueId().toString();
+                checkEvent.punishments = punishments;
+                checkEvent.allowed = event.getResult().isAllowed();
+                checkEvent.commit();
+            }
+        }
+    }
+
+    /**
+     * Checks the whitelist, the bans of the network the player connects from and the punishments of the player, in
+     * this order. Bans of networks are looked up in memory.
+     *
+     * @return the number of bans and mutes found for the player
+     */
+    private int check(LoginEvent event) throws SQLException {
         if (plugin.whitelistActive()) {
             plugin.getLogger().info("Whitelist is activated.");
-            try (var connection = plugin.getDataSource().getConnection();
-                 var statement = connection.prepareStatement("SELECT * FROM velocity_punishment_whitelist WHERE uuid = ?;")) {
-                statement.setString(1, Util.trimUuid(event.getPlayer().getUniqueId()));
-                if (!statement.executeQuery().next()) {
-                    event.setResult(ResultedEvent.ComponentResult.denied(Component.text("WHITELIST").color(NamedTextColor.DARK_RED)));
-                    return;
-                }
+            boolean whitelisted = plugin.getQueryExecutor().statement(SqlStatement.SELECT_WHITELISTED)
+                    .concerning(event.getPlayer().getUniqueId(), null)
+                    .query(ResultSet::next, Util.trimUuid(event.getPlayer().getUniqueId()));
+            if (!whitelisted) {
+                event.setResult(ResultedEvent.ComponentResult.denied(Component.text("WHITELIST").color(NamedTextColor.DARK_RED)));
+                return 0;
             }
         }
+        if (plugin.getAltDetectionData().isEnabled()) {
+            plugin.getLoginHistory().record(event.getPlayer());
+        }
+        var remoteAddress = event.getPlayer().getRemoteAddress();
+        var addressBan = remoteAddress == null ? Optional.<AddressBan>empty() : plugin.getAddressBanManager().find(remoteAddress.getAddress());
+        if (addressBan.isPresent()) {
+            event.setResult(ResultedEvent.ComponentResult.denied(addressBan.get().createFullReason(event.getPlayer(), plugin.getMessageProvider())));
+            return 1;
+        }
         List<Punishment> punishments;
         try {
             punishments = plugin.getPunishmentManager().getPunishments(event.getPlayer().getUniqueId(), service, StandardPunishmentType.BAN,
@@ -66,7 +104,7 @@ public record ConnectListener(VelocityPunishmentPlugin plugin,
         } catch (Exception e) {
             e.printStackTrace();
             event.setResult(ResultedEvent.ComponentResult.denied(plugin.getMessageProvider().internalError(event.getPlayer(), true)));
-            return;
+            return 0;
         }
         List<Ban> bans = new ArrayList<>();
         List<Mute> mutes = new ArrayList<>();
@@ -76,20 +114,17 @@ public record ConnectListener(VelocityPunishmentPlugin plugin,
             if (punishment instanceof Mute mute)
                 mutes.add(mute);
         }
-        Mute longestMute = Util.getLongestPunishment(mutes);
+        Mute longestMute = PunishmentSelector.longest(mutes);
         if (longestMute != null) {
-            longestMute.getDuration().absolute();
             chatListener.getMutes().put(event.getPlayer().getUniqueId(), new ChatListener.MuteContainer(true).setMute(longestMute));
         }
-        if (bans.isEmpty())
-            return;
-        final Ban ban = Util.getLongestPunishment(bans);
-        if (ban == null)
-            return;
-        if (ban.isOngoing()) {
+        final Ban ban = PunishmentSelector.longest(bans);
+        if (ban != null && ban.isOngoing()) {
             Component deny = ban.createFullReason(event.getPlayer());
             event.setResult(ResultedEvent.ComponentResult.denied(deny));
-        } else {
+            return punishments.size();
+        }
+        if (ban != null) {
             ban.cancel().whenCompleteAsync((unused, t) -> {
                 if (t != null) {
                     t.printStackTrace();
@@ -102,5 +137,66 @@ public record ConnectListener(VelocityPunishmentPlugin plugin,
                                 Component.text("was cancelled.").color(NamedTextColor.GREEN)));
             }, service);
         }
+        checkAlts(event);
+        return punishments.size();
+    }
+
+    /**
+     * Looks for an active ban of an account which logged in from one of the addresses of the player and notifies the
+     * staff or bans the player, depending on the configuration. The bans of the most recently seen linked accounts are
+     * looked up with a single query. Errors while looking up the linked accounts are logged and do not deny the login.
+     */
+    private void checkAlts(LoginEvent event) {
+        var altDetection = plugin.getAltDetectionData();
+        if (!altDetection.isEnabled() || altDetection.getAction() == AltDetectionData.Action.NONE) {
+            return;
+        }
+        Player player = event.getPlayer();
+        if (!(plugin.getPunishmentManager() instanceof DefaultPunishmentManager punishmentManager)) {
+            return;
+        }
+        List<UUID> alts = plugin.getLoginHistory().recentAlts(player.getUniqueId(), DefaultPunishmentManager.MAX_PLAYER_LIST_SIZE);
+        if (alts.isEmpty()) {
+            return;
+        }
+        Map<Ban, UUID> bans = new IdentityHashMap<>();
+        try {
+            punishmentManager.getActiveBans(alts, service).get(10, TimeUnit.SECONDS)
+                    .forEach((alt, altBans) -> altBans.forEach(ban -> bans.put(ban, alt)));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return;
+        }
+        Ban altBan = PunishmentSelector.governing(bans.keySet());
+        if (altBan == null) {
+            return;
+        }
+        notifyAlt(player, bans.get(altBan));
+        if (altDetection.getAction() == AltDetectionData.Action.BAN) {
+            Ban ban = plugin.getPunishmentManager().createBan(player.getUniqueId(), altBan.getReason(), altBan.getDuration());
+            try {
+                Punishment punishment = ban.punish().get(10, TimeUnit.SECONDS);
+                event.setResult(ResultedEvent.ComponentResult.denied(((Ban) punishment).createFullReason(player)));
+            } catch (ExecutionException e) {
+                if (!Util.isVetoed(e)) {
+                    e.printStackTrace();
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void notifyAlt(Player player, UUID alt) {
+        plugin.getPlayerResolver().getOrQueryPlayerName(alt, service).whenComplete((name, throwable) -> {
+            Component altName = Component.text(name == null ? alt.toString() : name).color(NamedTextColor.YELLOW);
+            Component playerName = Component.text(player.getUsername()).color(NamedTextColor.YELLOW);
+            for (Player online : proxyServer.getAllPlayers()) {
+                if (online.hasPermission("punishment.alts.notify")) {
+                    online.sendMessage(plugin.getMessageProvider().provide("alts.notify", online, true, playerName, altName).color(NamedTextColor.RED));
+                }
+            }
+            proxyServer.getConsoleCommandSource().sendMessage(plugin.getMessageProvider().provide("alts.notify", proxyServer.getConsoleCommandSource(), true, playerName, altName).color(NamedTextColor.RED));
+        });
     }
 }
@@ -0,0 +1,107 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.message;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+
+import java.text.AttributedCharacterIterator;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A translation which was parsed once into a sequence of constant text components and argument slots. Rendering a
+ * template only inserts the given arguments into the pre-built parts, which yields the same component tree as
+ * {@link net.kyori.adventure.translation.GlobalTranslator#render(Component, java.util.Locale)} without formatting the
+ * underlying {@link MessageFormat} again.
+ */
+public final class MessageTemplate {
+
+    private static final int LITERAL = -1;
+
+    private final Component plain;
+    private final Component[] parts;
+    private final int[] arguments;
+
+    private MessageTemplate(Component plain, Component[] parts, int[] arguments) {
+        this.plain = plain;
+        this.parts = parts;
+        this.arguments = arguments;
+    }
+
+    /**
+     * Splits the given format into its literal parts and argument slots.
+     *
+     * @param format the format of the translation
+     * @return the compiled template
+     */
+    public static MessageTemplate compile(MessageFormat format) {
+        Component plain = Component.text(format.format(null, new StringBuffer(), null).toString());
+        Object[] nulls = new Object[format.getFormatsByArgumentIndex().length];
+        String formatted = format.format(nulls, new StringBuffer(), null).toString();
+        AttributedCharacterIterator iterator = format.formatToCharacterIterator(nulls);
+        List<Component> parts = new ArrayList<>();
+        List<Integer> arguments = new ArrayList<>();
+        while (iterator.getIndex() < iterator.getEndIndex()) {
+            int end = iterator.getRunLimit();
+            Integer index = (Integer) iterator.getAttribute(MessageFormat.Field.ARGUMENT);
+            if (index != null) {
+                parts.add(null);
+                arguments.add(index);
+            } else {
+                parts.add(Component.text(formatted.substring(iterator.getIndex(), end)));
+                arguments.add(LITERAL);
+            }
+            iterator.setIndex(end);
+        }
+        return new MessageTemplate(plain, parts.toArray(new Component[0]), arguments.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Renders this template with the given arguments. Arguments are inserted as they are; translatable arguments are
+     * translated by the proxy when the message is sent.
+     *
+     * @param args the arguments of the message
+     * @return the rendered message
+     */
+    public Component render(Component... args) {
+        if (args.length == 0) {
+            return plain;
+        }
+        TextComponent.Builder builder = Component.text();
+        for (int i = 0; i < parts.length; i++) {
+            int index = arguments[i];
+            if (index == LITERAL) {
+                builder.append(parts[i]);
+            } else if (index < args.length) {
+                builder.append(args[index]);
+            } else {
+                builder.append(Component.text("{" + index + "}"));
+            }
+        }
+        return builder.build();
+    }
+}
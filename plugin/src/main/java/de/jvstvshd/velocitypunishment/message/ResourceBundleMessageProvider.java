@@ -26,70 +26,26 @@ package de.jvstvshd.velocitypunishment.message;
 
 import com.velocitypowered.api.command.CommandSource;
 import com.velocitypowered.api.proxy.Player;
-import de.jvstvshd.velocitypunishment.VelocityPunishmentPlugin;
 import de.jvstvshd.velocitypunishment.api.message.MessageProvider;
 import de.jvstvshd.velocitypunishment.config.ConfigData;
-import net.kyori.adventure.key.Key;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import net.kyori.adventure.translation.GlobalTranslator;
-import net.kyori.adventure.translation.TranslationRegistry;
-import net.kyori.adventure.translation.Translator;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.File;
-import java.io.IOException;
-import java.net.URISyntaxException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
-import java.util.PropertyResourceBundle;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
-import java.util.stream.Stream;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ResourceBundleMessageProvider implements MessageProvider {
 
     private final ConfigData configData;
     private LocaleProvider localeProvider;
-
-    static {
-        try {
-            var registry = TranslationRegistry.create(Key.key("velocity-punishment"));
-            registry.defaultLocale(Locale.ENGLISH);
-            var baseDir = Path.of("plugins", "velocity-punishment", "translations");
-            if (!Files.exists(baseDir)) {
-                Files.createDirectories(baseDir);
-            }
-            try (Stream<Path> paths = Files.list(baseDir)) {
-                paths.filter(path -> path.getFileName().toString().endsWith(".properties")).forEach(path -> {
-                    PropertyResourceBundle resource;
-                    try {
-                        resource = new PropertyResourceBundle(Files.newInputStream(path));
-                        var locale = Objects.requireNonNull(Translator.parseLocale(path.getFileName().toString().substring(0, path.getFileName().toString().length() - ".properties".length())));
-                        registry.registerAll(locale, resource, false);
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
-                });
-                try (JarFile jar = new JarFile(new File(VelocityPunishmentPlugin.class.getProtectionDomain().getCodeSource().getLocation().toURI()))) {
-                    for (JarEntry translationEntry : jar.stream().filter(jarEntry -> jarEntry.getName().toLowerCase().contains("translations") && !jarEntry.isDirectory()).toList()) {
-                        var path = Path.of(baseDir.toString(), translationEntry.getName().split("/")[1]);
-                        if (Files.exists(path)) {
-                            continue;
-                        }
-                        System.out.println("copying translation file " + translationEntry.getName());
-                        Files.copy(Objects.requireNonNull(VelocityPunishmentPlugin.class.getResourceAsStream("/" + translationEntry.getName())), path);
-                    }
-                }
-            }
-            GlobalTranslator.get().addSource(registry);
-        } catch (IOException | URISyntaxException e) {
-            e.printStackTrace();
-        }
-    }
+    private final Map<Locale, Map<String, Component>> standardMessages = new ConcurrentHashMap<>();
+    private final Map<Locale, Map<String, Optional<MessageTemplate>>> templates = new ConcurrentHashMap<>();
 
     public ResourceBundleMessageProvider(@NotNull ConfigData configData) {
         this.configData = configData;
@@ -111,11 +67,23 @@ public class ResourceBundleMessageProvider implements MessageProvider {
         if (locale == null) {
             locale = Locale.ENGLISH;
         }
-        var rendered = GlobalTranslator.render(Component.translatable(key), locale);
-        if (rendered instanceof TextComponent textComponent) {
-            return LegacyComponentSerializer.legacyAmpersand().deserialize(textComponent.content());
+        final Locale finalLocale = locale;
+        return standardMessages.computeIfAbsent(locale, l -> new ConcurrentHashMap<>()).computeIfAbsent(key, k -> {
+            var rendered = GlobalTranslator.render(Component.translatable(k), finalLocale);
+            if (rendered instanceof TextComponent textComponent) {
+                return LegacyComponentSerializer.legacyAmpersand().deserialize(textComponent.content());
+            }
+            return rendered;
+        });
+    }
+
+    private Component render(String key, Locale locale, Component... args) {
+        var template = templates.computeIfAbsent(locale, l -> new ConcurrentHashMap<>())
+                .computeIfAbsent(key, k -> Optional.ofNullable(GlobalTranslator.get().translate(k, locale)).map(MessageTemplate::compile));
+        if (template.isEmpty()) {
+            return GlobalTranslator.render(Component.translatable(key, args), locale);
         }
-        return rendered;
+        return template.get().render(args);
     }
 
     @Override
@@ -134,18 +102,17 @@ public class ResourceBundleMessageProvider implements MessageProvider {
     @Override
     public @NotNull
     Component provide(String key, CommandSource source, Component... args) {
-        return GlobalTranslator.render(Component.translatable(key, args), localeProvider.provideLocale(source));
+        return render(key, localeProvider.provideLocale(source), args);
     }
 
     @Override
     public @NotNull
     Component provide(String key, Component... args) {
         Objects.requireNonNull(key, "key may not be null");
-        var translatable = Component.translatable(key, args);
         if (configData.getForcedLanguage() != null) {
-            return GlobalTranslator.render(translatable, configData.getForcedLanguage());
+            return render(key, configData.getForcedLanguage(), args);
         }
-        return translatable;
+        return Component.translatable(key, args);
     }
 
 
@@ -172,6 +139,11 @@ public class ResourceBundleMessageProvider implements MessageProvider {
         return provide(key, source, args);
     }
 
+    @Override
+    public @NotNull Locale locale(CommandSource source) {
+        return localeProvider.provideLocale(source);
+    }
+
     public LocaleProvider getLocaleProvider() {
         return localeProvider;
     }
@@ -0,0 +1,262 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.message;
+
+import de.jvstvshd.velocitypunishment.VelocityPunishmentPlugin;
+import net.kyori.adventure.key.Key;
+import net.kyori.adventure.translation.TranslationRegistry;
+import net.kyori.adventure.translation.Translator;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.MessageFormat;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PropertyResourceBundle;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Loads the translation files of this plugin into a {@link TranslationRegistry}. Loading is started explicitly by
+ * {@link #load()} and runs on the given executor: the default translations are copied out of the plugin jar, the
+ * translation directory is scanned and all bundles are parsed in parallel. A locale which is requested before its bundle
+ * was registered is loaded on first use by {@link #translate(String, Locale)}. Calling {@link #load()} again reloads all
+ * files without interrupting translations served in the meantime.
+ * <p>
+ * If the translation directory cannot be read, the translations bundled with the plugin jar are used instead. A
+ * registry is only installed once it has been loaded completely; until then, the previous one stays in use.
+ */
+public class TranslationLoader implements Translator {
+
+    private static final String SUFFIX = ".properties";
+    private static final Locale DEFAULT_LOCALE = Locale.ENGLISH;
+    private static final Key NAME = Key.key("velocity-punishment", "translations");
+
+    private final Path directory;
+    private final Logger logger;
+    private final ExecutorService service;
+    private volatile Translations translations;
+    private volatile Translations loading;
+    private FileSystem bundledFiles;
+
+    public TranslationLoader(Path directory, Logger logger, ExecutorService service) {
+        this.directory = directory;
+        this.logger = logger;
+        this.service = service;
+    }
+
+    /**
+     * Starts loading all translation files. On the first call, translations are served (and loaded on demand) from the
+     * registry being loaded. Subsequent calls reload all files into a new registry which atomically replaces the
+     * current one once it has been loaded completely. If loading fails, the current registry is kept.
+     *
+     * @return a {@link CompletableFuture} being completed once all locales have been registered
+     */
+    public CompletableFuture<Void> load() {
+        var start = System.nanoTime();
+        var next = new Translations();
+        loading = next;
+        return next.load().whenComplete((unused, throwable) -> {
+            if (loading == next) {
+                loading = null;
+            }
+            if (throwable != null) {
+                logger.error("Could not load translations", throwable);
+                return;
+            }
+            translations = next;
+            logger.info("Loaded {} translation(s) in {} ms", next.loadedLocales.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        });
+    }
+
+    @Override
+    public @NotNull Key name() {
+        return NAME;
+    }
+
+    @Override
+    public @Nullable MessageFormat translate(@NotNull String key, @NotNull Locale locale) {
+        var translations = this.translations;
+        if (translations == null) {
+            translations = loading;
+        }
+        if (translations == null) {
+            return null;
+        }
+        return translations.translate(key, locale);
+    }
+
+    private Map<Locale, Path> discover() {
+        try {
+            Files.createDirectories(directory);
+            copyDefaults();
+            return list(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Lists the translation files packaged in the plugin jar. Used when the translation directory cannot be read.
+     */
+    private synchronized Map<Locale, Path> bundled() {
+        try {
+            if (bundledFiles == null) {
+                var source = pluginJar();
+                if (source == null) {
+                    return Map.of();
+                }
+                bundledFiles = FileSystems.newFileSystem(source.toPath());
+            }
+            return list(bundledFiles.getPath("translations"));
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not read the bundled translations", e);
+            return Map.of();
+        }
+    }
+
+    private Map<Locale, Path> list(Path translationDirectory) throws IOException {
+        Map<Locale, Path> found = new HashMap<>();
+        try (Stream<Path> paths = Files.list(translationDirectory)) {
+            paths.filter(path -> path.getFileName().toString().endsWith(SUFFIX)).forEach(path -> {
+                var name = path.getFileName().toString();
+                var locale = Translator.parseLocale(name.substring(0, name.length() - SUFFIX.length()));
+                if (locale == null) {
+                    logger.warn("Ignoring translation file with invalid locale: " + name);
+                    return;
+                }
+                found.put(locale, path);
+            });
+        }
+        return found;
+    }
+
+    private @Nullable File pluginJar() throws IOException {
+        File source;
+        try {
+            source = new File(VelocityPunishmentPlugin.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+        return source.isFile() ? source : null;
+    }
+
+    private void copyDefaults() throws IOException {
+        File source = pluginJar();
+        if (source == null) {
+            logger.warn("Plugin is not loaded from a jar file, default translations cannot be copied");
+            return;
+        }
+        try (JarFile jar = new JarFile(source)) {
+            for (JarEntry translationEntry : jar.stream().filter(jarEntry -> jarEntry.getName().toLowerCase().contains("translations") && !jarEntry.isDirectory()).toList()) {
+                var path = directory.resolve(translationEntry.getName().split("/")[1]);
+                if (Files.exists(path)) {
+                    continue;
+                }
+                logger.info("copying translation file " + translationEntry.getName());
+                try (InputStream in = Objects.requireNonNull(VelocityPunishmentPlugin.class.getResourceAsStream("/" + translationEntry.getName()))) {
+                    Files.copy(in, path);
+                }
+            }
+        }
+    }
+
+    private final class Translations {
+
+        private final TranslationRegistry registry;
+        private final Map<Locale, CompletableFuture<Void>> loadedLocales = new ConcurrentHashMap<>();
+        private final Set<Locale> resolvedLocales = ConcurrentHashMap.newKeySet();
+        private final CompletableFuture<Map<Locale, Path>> files;
+
+        /**
+         * Starts discovering the translation files, so {@link #files} is set before this instance can be published.
+         */
+        private Translations() {
+            this.registry = TranslationRegistry.create(NAME);
+            registry.defaultLocale(DEFAULT_LOCALE);
+            this.files = CompletableFuture.supplyAsync(TranslationLoader.this::discover, service).exceptionally(throwable -> {
+                logger.error("Could not read the translation directory " + directory + ", using the bundled translations", throwable);
+                return bundled();
+            });
+        }
+
+        private CompletableFuture<Void> load() {
+            return files.thenCompose(found -> CompletableFuture.allOf(found.entrySet().stream()
+                    .map(entry -> loadLocale(entry.getKey(), entry.getValue())).toArray(CompletableFuture[]::new)));
+        }
+
+        private MessageFormat translate(String key, Locale locale) {
+            ensureLoaded(locale);
+            return registry.translate(key, locale);
+        }
+
+        private void ensureLoaded(Locale locale) {
+            if (resolvedLocales.contains(locale)) {
+                return;
+            }
+            var available = files.join();
+            for (Locale candidate : new Locale[]{locale, new Locale(locale.getLanguage()), DEFAULT_LOCALE}) {
+                var path = available.get(candidate);
+                if (path != null) {
+                    loadLocale(candidate, path).join();
+                }
+            }
+            resolvedLocales.add(locale);
+        }
+
+        private CompletableFuture<Void> loadLocale(Locale locale, Path path) {
+            return loadedLocales.computeIfAbsent(locale, l -> CompletableFuture.runAsync(() -> register(l, path), service));
+        }
+
+        private void register(Locale locale, Path path) {
+            var start = System.nanoTime();
+            try (InputStream in = Files.newInputStream(path)) {
+                registry.registerAll(locale, new PropertyResourceBundle(in), false);
+            } catch (IOException e) {
+                logger.error("Could not load translation file " + path, e);
+                return;
+            }
+            logger.info("Loaded locale {} in {} ms", locale, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+}
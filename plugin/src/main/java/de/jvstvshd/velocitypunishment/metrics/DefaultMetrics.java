@@ -0,0 +1,108 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.metrics;
+
+import de.jvstvshd.velocitypunishment.api.metrics.Counter;
+import de.jvstvshd.velocitypunishment.api.metrics.PunishmentMetrics;
+import de.jvstvshd.velocitypunishment.api.metrics.Timer;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+public class DefaultMetrics implements PunishmentMetrics {
+
+    private final Map<String, Timer> timers = new ConcurrentSkipListMap<>();
+    private final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentSkipListMap<>();
+
+    @Override
+    public Timer timer(String name) {
+        var timer = timers.get(name);
+        return timer != null ? timer : timers.computeIfAbsent(name, s -> new HistogramTimer());
+    }
+
+    @Override
+    public Counter counter(String name) {
+        var counter = counters.get(name);
+        return counter != null ? counter : counters.computeIfAbsent(name, s -> new DefaultCounter());
+    }
+
+    @Override
+    public void gauge(String name, LongSupplier supplier) {
+        gauges.put(name, supplier);
+    }
+
+    /**
+     * Registers gauges for the number of active threads and queued tasks of {@code service}, if it is a
+     * {@link ThreadPoolExecutor}.
+     *
+     * @param name    the name of the executor, used as part of the gauge names
+     * @param service the executor
+     */
+    public void executorGauges(String name, ExecutorService service) {
+        if (service instanceof ThreadPoolExecutor executor) {
+            gauge("executor." + name + ".active", executor::getActiveCount);
+            gauge("executor." + name + ".queued", () -> executor.getQueue().size());
+        }
+    }
+
+    @Override
+    public Map<String, Timer> getTimers() {
+        return Collections.unmodifiableMap(timers);
+    }
+
+    @Override
+    public Map<String, Counter> getCounters() {
+        return Collections.unmodifiableMap(counters);
+    }
+
+    @Override
+    public Map<String, LongSupplier> getGauges() {
+        return Collections.unmodifiableMap(gauges);
+    }
+
+    private static class DefaultCounter implements Counter {
+
+        private final LongAdder count = new LongAdder();
+
+        @Override
+        public void add(long amount) {
+            if (amount < 0) {
+                throw new IllegalArgumentException("amount must not be negative: " + amount);
+            }
+            count.add(amount);
+        }
+
+        @Override
+        public long count() {
+            return count.sum();
+        }
+    }
+}
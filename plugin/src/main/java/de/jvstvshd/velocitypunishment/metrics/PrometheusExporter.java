@@ -0,0 +1,111 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import de.jvstvshd.velocitypunishment.api.metrics.PunishmentMetrics;
+import de.jvstvshd.velocitypunishment.api.metrics.Timer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves all metrics of a {@link PunishmentMetrics} registry in the Prometheus text exposition format under
+ * {@code /metrics}. Timers are exported as summaries in seconds.
+ */
+public class PrometheusExporter implements AutoCloseable {
+
+    private static final String PREFIX = "velocity_punishment_";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final PunishmentMetrics metrics;
+    private final HttpServer server;
+
+    public PrometheusExporter(PunishmentMetrics metrics, String host, int port) throws IOException {
+        this.metrics = metrics;
+        this.server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        server.createContext("/metrics", this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+        }
+    }
+
+    /**
+     * @return all metrics in the Prometheus text exposition format
+     */
+    public String scrape() {
+        var builder = new StringBuilder();
+        metrics.getTimers().forEach((name, timer) -> appendTimer(builder, PREFIX + sanitize(name) + "_seconds", timer));
+        metrics.getCounters().forEach((name, counter) -> {
+            var metric = PREFIX + sanitize(name) + "_total";
+            builder.append("# TYPE ").append(metric).append(" counter\n");
+            builder.append(metric).append(' ').append(counter.count()).append('\n');
+        });
+        metrics.getGauges().forEach((name, gauge) -> {
+            var metric = PREFIX + sanitize(name);
+            builder.append("# TYPE ").append(metric).append(" gauge\n");
+            builder.append(metric).append(' ').append(gauge.getAsLong()).append('\n');
+        });
+        return builder.toString();
+    }
+
+    private static void appendTimer(StringBuilder builder, String metric, Timer timer) {
+        builder.append("# TYPE ").append(metric).append(" summary\n");
+        for (double quantile : QUANTILES) {
+            builder.append(metric).append("{quantile=\"").append(quantile).append("\"} ")
+                    .append(seconds(timer.percentile(quantile, TimeUnit.NANOSECONDS))).append('\n');
+        }
+        builder.append(metric).append("_count ").append(timer.count()).append('\n');
+        builder.append(metric).append("_sum ").append(seconds(timer.totalTime(TimeUnit.NANOSECONDS))).append('\n');
+    }
+
+    private static String sanitize(String name) {
+        return name.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9_]", "_");
+    }
+
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / 1e9);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.sql;
+
+import java.util.Map;
+
+/**
+ * The SQL dialects statements are written for. A {@link SqlStatement} uses its default SQL unless it defines a variant
+ * for the dialect in use.
+ */
+public enum Dialect {
+
+    /**
+     * MariaDB, the database used in production. Prepared statements are prepared and cached on the server, which also
+     * makes the server check every statement when it is validated at startup.
+     */
+    MARIADB(Map.of(
+            "useServerPrepStmts", "true",
+            "cachePrepStmts", "true",
+            "prepStmtCacheSize", "250",
+            "prepStmtCacheSqlLimit", "2048")),
+    /**
+     * H2 in MariaDB compatibility mode, used for embedded databases.
+     */
+    H2(Map.of());
+
+    private final Map<String, String> connectionProperties;
+
+    Dialect(Map<String, String> connectionProperties) {
+        this.connectionProperties = connectionProperties;
+    }
+
+    /**
+     * @return driver properties every connection of this dialect should be opened with
+     */
+    public Map<String, String> getConnectionProperties() {
+        return connectionProperties;
+    }
+}
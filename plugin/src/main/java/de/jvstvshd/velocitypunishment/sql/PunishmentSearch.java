@@ -0,0 +1,135 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.sql;
+
+import de.jvstvshd.velocitypunishment.api.punishment.PunishmentQuery;
+import de.jvstvshd.velocitypunishment.api.punishment.StandardPunishmentType;
+import de.jvstvshd.velocitypunishment.internal.ReasonTemplates;
+import de.jvstvshd.velocitypunishment.internal.Util;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Compiles a {@link PunishmentQuery} into the clauses following {@link SqlStatement#SEARCH_PUNISHMENTS}. Every
+ * filter becomes a sargable predicate on an indexed column: the player on {@code (uuid, type)}, types and expiration
+ * ranges on {@code (type, expiration)} and issue dates on {@code issued_at}. The reason is matched against its plain
+ * text with {@code LIKE '%...%'}, so it narrows the rows found by the other filters but cannot use an index itself.
+ * Punishments with a reason template store no reason; they are matched by the ids of the templates whose reason
+ * contains the text.
+ * <p>
+ * The SQL only consists of fixed fragments and placeholders, so the number of distinct statements (and prepared
+ * statement cache entries) stays small.
+ *
+ * @param clauses    the WHERE, ORDER BY and LIMIT clauses
+ * @param parameters the parameters in placeholder order
+ */
+public record PunishmentSearch(String clauses, Object[] parameters) {
+
+    private static final char LIKE_ESCAPE = '!';
+
+    /**
+     * @param query     the query
+     * @param now       the time active punishments must expire after
+     * @param templates the reason templates to match the reason filter against
+     * @return the compiled query, which fetches one row more than {@link PunishmentQuery#limit()} to tell whether
+     * there is a next page
+     */
+    public static PunishmentSearch compile(PunishmentQuery query, LocalDateTime now, ReasonTemplates templates) {
+        var where = new StringJoiner(" AND ", " WHERE ", "").setEmptyValue("");
+        List<Object> parameters = new ArrayList<>();
+        query.player().ifPresent(player -> {
+            where.add("uuid = ?");
+            parameters.add(Util.trimUuid(player));
+        });
+        if (query.types().size() < StandardPunishmentType.values().length) {
+            var in = new StringJoiner(", ", "type IN (", ")");
+            for (StandardPunishmentType type : query.types()) {
+                in.add("?");
+                parameters.add(type.getName());
+            }
+            where.add(in.toString());
+        }
+        LocalDateTime expiresAfter = query.expiresAfter().orElse(null);
+        if (query.activeOnly() && (expiresAfter == null || expiresAfter.isBefore(now))) {
+            expiresAfter = now;
+        }
+        if (expiresAfter != null) {
+            where.add("expiration > ?");
+            parameters.add(Timestamp.valueOf(expiresAfter));
+        }
+        query.expiresBefore().ifPresent(time -> {
+            where.add("expiration < ?");
+            parameters.add(Timestamp.valueOf(time));
+        });
+        query.issuedAfter().ifPresent(time -> {
+            where.add("issued_at >= ?");
+            parameters.add(Timestamp.valueOf(time));
+        });
+        query.issuedBefore().ifPresent(time -> {
+            where.add("issued_at < ?");
+            parameters.add(Timestamp.valueOf(time));
+        });
+        query.reason().ifPresent(reason -> {
+            String like = "reason_text LIKE ? ESCAPE '" + LIKE_ESCAPE + "'";
+            parameters.add("%" + escapeLike(reason) + "%");
+            List<String> templateIds = templates.idsContaining(reason);
+            if (templateIds.isEmpty()) {
+                where.add(like);
+                return;
+            }
+            var in = new StringJoiner(", ", "(" + like + " OR reason_template IN (", "))");
+            for (String id : templateIds) {
+                in.add("?");
+                parameters.add(id);
+            }
+            where.add(in.toString());
+        });
+        query.after().ifPresent(cursor -> {
+            where.add("(expiration < ? OR (expiration = ? AND punishment_id < ?))");
+            Timestamp expiration = Timestamp.valueOf(cursor.expiration());
+            parameters.add(expiration);
+            parameters.add(expiration);
+            parameters.add(Util.trimUuid(cursor.punishmentId()));
+        });
+        parameters.add(query.limit() + 1);
+        return new PunishmentSearch(where + " ORDER BY expiration DESC, punishment_id DESC LIMIT ?", parameters.toArray());
+    }
+
+    private static String escapeLike(String value) {
+        var builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                builder.append(LIKE_ESCAPE);
+            }
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+}
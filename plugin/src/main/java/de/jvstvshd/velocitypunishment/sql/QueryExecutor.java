@@ -0,0 +1,301 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.sql;
+
+import de.jvstvshd.velocitypunishment.api.metrics.PunishmentMetrics;
+import de.jvstvshd.velocitypunishment.api.punishment.PunishmentType;
+import de.jvstvshd.velocitypunishment.jfr.SqlStatementEvent;
+import org.slf4j.Logger;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Executes every SQL statement of the plugin in the SQL of the configured {@link Dialect}. Each execution is timed,
+ * recorded in the timer {@code sql.<statement id>}, in the rolling {@link StatementStats} of the statement and as a
+ * {@link SqlStatementEvent}. Executions taking longer than the slow query threshold are logged together with the types
+ * and sizes of their parameters; parameter values are never logged.
+ * <p>
+ * The measured time includes acquiring a connection from the pool, so pool exhaustion shows up as slow queries.
+ */
+public class QueryExecutor {
+
+    private final DataSource dataSource;
+    private final Dialect dialect;
+    private final PunishmentMetrics metrics;
+    private final Logger logger;
+    private final LongSupplier slowQueryThresholdMillis;
+    private final Map<String, StatementStats> statistics = new ConcurrentSkipListMap<>();
+
+    /**
+     * @param dataSource               the data source to obtain connections from
+     * @param dialect                  the dialect of the database
+     * @param metrics                  the metrics to record execution times in
+     * @param logger                   the logger slow queries are logged to
+     * @param slowQueryThresholdMillis supplies the current slow query threshold in milliseconds; a negative value
+     *                                 disables the slow query log
+     */
+    public QueryExecutor(DataSource dataSource, Dialect dialect, PunishmentMetrics metrics, Logger logger, LongSupplier slowQueryThresholdMillis) {
+        this.dataSource = dataSource;
+        this.dialect = dialect;
+        this.metrics = metrics;
+        this.logger = logger;
+        this.slowQueryThresholdMillis = slowQueryThresholdMillis;
+    }
+
+    /**
+     * Creates a query executing {@code statement}.
+     *
+     * @param statement the statement
+     * @return the query
+     */
+    public Query statement(SqlStatement statement) {
+        return new Query(statement.getId(), statement.sql(dialect));
+    }
+
+    /**
+     * Creates a query executing {@code statement} followed by {@code clauses}, e.g. a WHERE clause built from fixed
+     * fragments. The query is recorded under the id of {@code statement}. {@code clauses} must never contain user
+     * input; bind it as a parameter instead.
+     *
+     * @param statement the statement
+     * @param clauses   the clauses appended to the SQL of the statement
+     * @return the query
+     */
+    public Query statement(SqlStatement statement, String clauses) {
+        return new Query(statement.getId(), statement.sql(dialect) + clauses);
+    }
+
+    /**
+     * Executes all {@link SqlStatement.Kind#SCHEMA schema} statements in declaration order.
+     *
+     * @throws SQLException if a statement failed
+     */
+    public void createSchema() throws SQLException {
+        for (SqlStatement statement : SqlStatement.values()) {
+            if (statement.getKind() == SqlStatement.Kind.SCHEMA) {
+                statement(statement).update();
+            }
+        }
+    }
+
+    /**
+     * Prepares every statement that is not a schema statement once to check that it is valid for the current
+     * schema. Whether the database checks a statement when it is prepared depends on the driver; MariaDB does so
+     * because statements are prepared on the server.
+     *
+     * @return the statements that could not be prepared, mapped to the reason
+     * @throws SQLException if no connection could be obtained
+     */
+    public Map<SqlStatement, SQLException> validate() throws SQLException {
+        Map<SqlStatement, SQLException> invalid = new EnumMap<>(SqlStatement.class);
+        try (Connection connection = dataSource.getConnection()) {
+            for (SqlStatement statement : SqlStatement.values()) {
+                if (statement.getKind() == SqlStatement.Kind.SCHEMA) {
+                    continue;
+                }
+                try (PreparedStatement ignored = connection.prepareStatement(statement.sql(dialect))) {
+                    logger.debug("Validated statement {}", statement.getId());
+                } catch (SQLException e) {
+                    invalid.put(statement, e);
+                }
+            }
+        }
+        return invalid;
+    }
+
+    public Dialect getDialect() {
+        return dialect;
+    }
+
+    /**
+     * @return an unmodifiable view of the statistics of all statements executed so far, sorted by statement id
+     */
+    public Map<String, StatementStats> getStatistics() {
+        return Collections.unmodifiableMap(statistics);
+    }
+
+    private void record(Query query, long nanos, boolean failed, Object[] parameters) {
+        long threshold = slowQueryThresholdMillis.getAsLong();
+        boolean slow = threshold >= 0 && nanos >= TimeUnit.MILLISECONDS.toNanos(threshold);
+        metrics.timer("sql." + query.statementId).record(nanos, TimeUnit.NANOSECONDS);
+        var stats = statistics.get(query.statementId);
+        if (stats == null) {
+            stats = statistics.computeIfAbsent(query.statementId, StatementStats::new);
+        }
+        stats.record(nanos, failed, slow);
+        if (slow) {
+            logger.warn("Slow query {} took {} ms (threshold: {} ms){}, parameters: [{}], sql: {}", query.statementId,
+                    TimeUnit.NANOSECONDS.toMillis(nanos), threshold, failed ? " and failed" : "", describe(parameters), query.sql);
+        }
+    }
+
+    private static void bind(PreparedStatement statement, Object[] parameters) throws SQLException {
+        for (int i = 0; i < parameters.length; i++) {
+            Object parameter = parameters[i];
+            int index = i + 1;
+            if (parameter == null) {
+                statement.setNull(index, Types.NULL);
+            } else if (parameter instanceof String string) {
+                statement.setString(index, string);
+            } else if (parameter instanceof Timestamp timestamp) {
+                statement.setTimestamp(index, timestamp);
+            } else if (parameter instanceof Boolean bool) {
+                statement.setBoolean(index, bool);
+            } else if (parameter instanceof Integer integer) {
+                statement.setInt(index, integer);
+            } else if (parameter instanceof Long value) {
+                statement.setLong(index, value);
+            } else {
+                statement.setObject(index, parameter);
+            }
+        }
+    }
+
+    /**
+     * Describes the shape of the parameters, e.g. {@code String(32), Timestamp}.
+     */
+    static String describe(Object[] parameters) {
+        var joiner = new StringJoiner(", ");
+        for (Object parameter : parameters) {
+            if (parameter == null) {
+                joiner.add("null");
+            } else if (parameter instanceof CharSequence sequence) {
+                joiner.add("String(" + sequence.length() + ")");
+            } else {
+                joiner.add(parameter.getClass().getSimpleName());
+            }
+        }
+        return joiner.toString();
+    }
+
+    @FunctionalInterface
+    private interface Execution<T> {
+        T execute(PreparedStatement statement, SqlStatementEvent event) throws SQLException;
+    }
+
+    /**
+     * A single statement, executed with {@link #update(Object...)} or {@link #query(ResultSetMapper, Object...)}.
+     * Parameters are bound in order; {@link String}, {@link Timestamp}, {@link Boolean}, {@link Integer},
+     * {@link Long} and null are bound with their dedicated setters, anything else with
+     * {@link PreparedStatement#setObject(int, Object)}.
+     */
+    public class Query {
+
+        private final String statementId;
+        private final String sql;
+        private UUID player;
+        private String punishmentType;
+        private int fetchSize;
+
+        private Query(String statementId, String sql) {
+            this.statementId = statementId;
+            this.sql = sql;
+        }
+
+        /**
+         * Attaches the player and the punishment type this query concerns to the emitted {@link SqlStatementEvent}.
+         *
+         * @param player the player, or null
+         * @param type   the punishment type, or null
+         * @return this query
+         */
+        public Query concerning(UUID player, PunishmentType type) {
+            this.player = player;
+            this.punishmentType = type == null ? null : type.getName();
+            return this;
+        }
+
+        /**
+         * Sets the number of rows fetched from the database at once. For MariaDB, a positive fetch size also makes
+         * the driver stream the result set instead of reading it into memory completely.
+         *
+         * @param fetchSize the fetch size; 0 lets the driver decide
+         * @return this query
+         */
+        public Query fetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+            return this;
+        }
+
+        /**
+         * Executes this statement as an update.
+         *
+         * @param parameters the parameters
+         * @return the number of affected rows
+         * @throws SQLException if the statement failed
+         */
+        public int update(Object... parameters) throws SQLException {
+            return execute((statement, event) -> {
+                int rows = statement.executeUpdate();
+                event.setRows(rows);
+                return rows;
+            }, parameters);
+        }
+
+        /**
+         * Executes this statement as a query.
+         *
+         * @param mapper     maps the result set to the result
+         * @param parameters the parameters
+         * @param <T>        the type of the result
+         * @return the result of {@code mapper}
+         * @throws SQLException if the statement or the mapper failed
+         */
+        public <T> T query(ResultSetMapper<T> mapper, Object... parameters) throws SQLException {
+            return execute((statement, event) -> {
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return mapper.map(resultSet);
+                }
+            }, parameters);
+        }
+
+        private <T> T execute(Execution<T> execution, Object[] parameters) throws SQLException {
+            long start = System.nanoTime();
+            boolean failed = true;
+            try (var event = SqlStatementEvent.start(statementId, player, punishmentType);
+                 Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(sql)) {
+                bind(statement, parameters);
+                if (fetchSize > 0) {
+                    statement.setFetchSize(fetchSize);
+                }
+                T result = execution.execute(statement, event);
+                failed = false;
+                return result;
+            } finally {
+                record(this, System.nanoTime() - start, failed, parameters);
+            }
+        }
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.sql;
+
+import java.util.Map;
+
+/**
+ * Every SQL statement executed by the plugin. Statements are executed through
+ * {@link QueryExecutor#statement(SqlStatement)}; their id names the timer, the statistics and the JFR events of the
+ * statement.
+ */
+public enum SqlStatement {
+
+    CREATE_PUNISHMENT_TABLE("schema.punishment", Kind.SCHEMA,
+            "CREATE TABLE IF NOT EXISTS velocity_punishment (uuid  VARCHAR (36), name VARCHAR (16), type VARCHAR (1000), " +
+                    "expiration DATETIME (6), reason VARCHAR (4096), punishment_id VARCHAR (36), issued_at DATETIME (6), " +
+                    "reason_template VARCHAR (64), reason_text VARCHAR (4096))"),
+    /**
+     * Adds the issue date to tables created before it was stored. Existing punishments keep no issue date.
+     */
+    ADD_PUNISHMENT_ISSUED_AT("schema.punishment.issued-at", Kind.SCHEMA,
+            "ALTER TABLE velocity_punishment ADD COLUMN IF NOT EXISTS issued_at DATETIME (6)"),
+    /**
+     * Reasons are stored as JSON components, which take more space than the legacy strings stored before.
+     */
+    WIDEN_PUNISHMENT_REASON("schema.punishment.reason", Kind.SCHEMA,
+            "ALTER TABLE velocity_punishment MODIFY COLUMN reason VARCHAR (4096)",
+            Map.of(Dialect.H2, "ALTER TABLE velocity_punishment ALTER COLUMN reason SET DATA TYPE VARCHAR (4096)")),
+    /**
+     * Adds the id of the reason template to tables created before templates existed. Punishments with a template
+     * store no reason.
+     */
+    ADD_PUNISHMENT_REASON_TEMPLATE("schema.punishment.reason-template", Kind.SCHEMA,
+            "ALTER TABLE velocity_punishment ADD COLUMN IF NOT EXISTS reason_template VARCHAR (64)"),
+    /**
+     * Adds the plain text of the reason, which reason searches match against instead of the JSON. Existing rows are
+     * filled in by {@link #SELECT_REASONS_WITHOUT_TEXT}.
+     */
+    ADD_PUNISHMENT_REASON_TEXT("schema.punishment.reason-text", Kind.SCHEMA,
+            "ALTER TABLE velocity_punishment ADD COLUMN IF NOT EXISTS reason_text VARCHAR (4096)"),
+    /**
+     * Serves the lookups done for every login and chat message. MariaDB only indexes a prefix of the type, as the
+     * full column exceeds the maximum key length.
+     */
+    CREATE_PUNISHMENT_UUID_INDEX("schema.punishment.uuid-index", Kind.SCHEMA,
+            "CREATE INDEX IF NOT EXISTS velocity_punishment_uuid_type ON velocity_punishment (uuid, type (32))",
+            Map.of(Dialect.H2, "CREATE INDEX IF NOT EXISTS velocity_punishment_uuid_type ON velocity_punishment (uuid, type)")),
+    CREATE_PUNISHMENT_ID_INDEX("schema.punishment.id-index", Kind.SCHEMA,
+            "CREATE INDEX IF NOT EXISTS velocity_punishment_punishment_id ON velocity_punishment (punishment_id)"),
+    /**
+     * Serves the keyset pagination of the punishment history.
+     */
+    CREATE_PUNISHMENT_HISTORY_INDEX("schema.punishment.history-index", Kind.SCHEMA,
+            "CREATE INDEX IF NOT EXISTS velocity_punishment_history ON velocity_punishment (uuid, expiration, punishment_id)"),
+    /**
+     * Serve {@link #SEARCH_PUNISHMENTS} without a player, e.g. all active bans or all mutes expiring today.
+     */
+    CREATE_PUNISHMENT_TYPE_INDEX("schema.punishment.type-index", Kind.SCHEMA,
+            "CREATE INDEX IF NOT EXISTS velocity_punishment_type_expiration ON velocity_punishment (type (32), expiration)",
+            Map.of(Dialect.H2, "CREATE INDEX IF NOT EXISTS velocity_punishment_type_expiration ON velocity_punishment (type, expiration)")),
+    CREATE_PUNISHMENT_ISSUED_INDEX("schema.punishment.issued-index", Kind.SCHEMA,
+            "CREATE INDEX IF NOT EXISTS velocity_punishment_issued_at ON velocity_punishment (issued_at)"),
+    CREATE_WHITELIST_TABLE("schema.whitelist", Kind.SCHEMA,
+            "CREATE TABLE IF NOT EXISTS velocity_punishment_whitelist (uuid VARCHAR (36) PRIMARY KEY)"),
+    /**
+     * Bans of IPv4 and IPv6 networks, keyed by the network in CIDR notation as written by
+     * {@link de.jvstvshd.velocitypunishment.internal.AddressRange#toString()}.
+     */
+    CREATE_ADDRESS_BAN_TABLE("schema.address-ban", Kind.SCHEMA,
+            "CREATE TABLE IF NOT EXISTS velocity_punishment_address (address VARCHAR (43) PRIMARY KEY, " +
+                    "expiration DATETIME (6), reason VARCHAR (4096), punishment_id VARCHAR (36), issued_at DATETIME (6))"),
+    /**
+     * Every join and leave of a player, used to link accounts connecting from the same address. {@code login_at} is
+     * the time of the event.
+     */
+    CREATE_LOGIN_TABLE("schema.login", Kind.SCHEMA,
+            "CREATE TABLE IF NOT EXISTS velocity_punishment_login (uuid VARCHAR (36), address VARCHAR (39), login_at DATETIME (6), " +
+                    "event VARCHAR (8))"),
+    /**
+     * Adds the kind of event to tables created when only joins were recorded; their rows are joins.
+     */
+    ADD_LOGIN_EVENT("schema.login.event", Kind.SCHEMA,
+            "ALTER TABLE velocity_punishment_login ADD COLUMN IF NOT EXISTS event VARCHAR (8)"),
+    CREATE_LOGIN_TIME_INDEX("schema.login.time-index", Kind.SCHEMA,
+            "CREATE INDEX IF NOT EXISTS velocity_punishment_login_time ON velocity_punishment_login (login_at)"),
+
+    INSERT_PUNISHMENT("punishment.insert", Kind.UPDATE,
+            "INSERT INTO velocity_punishment (uuid, name, type, expiration, reason, punishment_id, issued_at, reason_template, reason_text) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)"),
+    DELETE_PUNISHMENT("punishment.delete", Kind.UPDATE,
+            "DELETE FROM velocity_punishment WHERE punishment_id = ?"),
+    UPDATE_PUNISHMENT("punishment.update", Kind.UPDATE,
+            "UPDATE velocity_punishment SET reason = ?, reason_text = ?, reason_template = NULL, expiration = ?, type = ? WHERE punishment_id = ?"),
+    /**
+     * The stored reasons of rows written before their plain text was stored. Template reasons store no text.
+     */
+    SELECT_REASONS_WITHOUT_TEXT("punishment.select-reasons-without-text", Kind.QUERY,
+            "SELECT punishment_id, reason FROM velocity_punishment WHERE reason_text IS NULL AND reason IS NOT NULL"),
+    UPDATE_REASON_TEXT("punishment.update-reason-text", Kind.UPDATE,
+            "UPDATE velocity_punishment SET reason_text = ? WHERE punishment_id = ?"),
+    SELECT_PUNISHMENTS_BY_TYPE("punishment.select-by-type", Kind.QUERY,
+            "SELECT expiration, reason, punishment_id, reason_template FROM velocity_punishment WHERE uuid = ? AND type = ?"),
+    SELECT_PUNISHMENT_BY_ID("punishment.select-by-id", Kind.QUERY,
+            "SELECT uuid, name, type, expiration, reason, reason_template FROM velocity_punishment WHERE punishment_id = ?"),
+    /**
+     * The first page of a player's history. The type list always has one parameter per
+     * {@link de.jvstvshd.velocitypunishment.api.punishment.StandardPunishmentType}; unused ones repeat a requested type.
+     */
+    SELECT_PUNISHMENT_PAGE("punishment.select-page", Kind.QUERY,
+            "SELECT type, expiration, reason, punishment_id, reason_template FROM velocity_punishment WHERE uuid = ? AND type IN (?, ?, ?, ?, ?) " +
+                    "ORDER BY expiration DESC, punishment_id DESC LIMIT ?"),
+    /**
+     * Every following page of a player's history, starting after the (expiration, punishment_id) of the previous one.
+     */
+    SELECT_PUNISHMENT_PAGE_AFTER("punishment.select-page-after", Kind.QUERY,
+            "SELECT type, expiration, reason, punishment_id, reason_template FROM velocity_punishment WHERE uuid = ? AND type IN (?, ?, ?, ?, ?) " +
+                    "AND (expiration < ? OR (expiration = ? AND punishment_id < ?)) ORDER BY expiration DESC, punishment_id DESC LIMIT ?"),
+    SELECT_PUNISHMENT_HISTORY("punishment.select-history", Kind.QUERY,
+            "SELECT type, expiration, reason, punishment_id, reason_template FROM velocity_punishment WHERE uuid = ? AND type IN (?, ?, ?, ?, ?) " +
+                    "ORDER BY expiration DESC, punishment_id DESC"),
+    COUNT_ACTIVE_PUNISHMENTS("punishment.count-active", Kind.QUERY,
+            "SELECT COUNT(*) FROM velocity_punishment WHERE uuid = ? AND type IN (?, ?, ?, ?, ?) AND expiration > ?"),
+    EXISTS_ACTIVE_PUNISHMENT("punishment.exists-active", Kind.QUERY,
+            "SELECT 1 FROM velocity_punishment WHERE uuid = ? AND type IN (?, ?, ?, ?, ?) AND expiration > ? LIMIT 1"),
+    /**
+     * The select list of a {@link de.jvstvshd.velocitypunishment.api.punishment.PunishmentQuery}. The filters are
+     * appended by {@link PunishmentSearch}; this statement alone is only executed for validation.
+     */
+    SEARCH_PUNISHMENTS("punishment.search", Kind.QUERY,
+            "SELECT uuid, type, expiration, reason, punishment_id, reason_template FROM velocity_punishment"),
+    /**
+     * The active bans of several players. The player list is appended as {@code  AND uuid IN (?, ...)} by
+     * {@link de.jvstvshd.velocitypunishment.impl.DefaultPunishmentManager#getActiveBans}.
+     */
+    SELECT_ACTIVE_BANS("punishment.select-active-bans", Kind.QUERY,
+            "SELECT uuid, type, expiration, reason, punishment_id, reason_template FROM velocity_punishment WHERE type IN (?, ?) AND expiration > ?"),
+    SELECT_NAMES("punishment.select-names", Kind.QUERY,
+            "SELECT DISTINCT name FROM velocity_punishment WHERE name LIKE ?"),
+
+    SELECT_WHITELISTED("whitelist.select", Kind.QUERY,
+            "SELECT 1 FROM velocity_punishment_whitelist WHERE uuid = ? LIMIT 1"),
+    /**
+     * Adds a player to the whitelist unless they are already on it. Tables created before the primary key was added
+     * to the schema have no unique key, so there the MariaDB variant behaves like a plain insert.
+     */
+    INSERT_WHITELISTED("whitelist.insert", Kind.UPDATE,
+            "INSERT IGNORE INTO velocity_punishment_whitelist (uuid) VALUES (?)",
+            Map.of(Dialect.H2, "MERGE INTO velocity_punishment_whitelist (uuid) KEY (uuid) VALUES (?)")),
+    DELETE_WHITELISTED("whitelist.delete", Kind.UPDATE,
+            "DELETE FROM velocity_punishment_whitelist WHERE uuid = ?"),
+
+    /**
+     * Bans a network, replacing a previous ban of the same network.
+     */
+    INSERT_ADDRESS_BAN("address-ban.insert", Kind.UPDATE,
+            "REPLACE INTO velocity_punishment_address (address, expiration, reason, punishment_id, issued_at) VALUES (?, ?, ?, ?, ?)",
+            Map.of(Dialect.H2, "MERGE INTO velocity_punishment_address (address, expiration, reason, punishment_id, issued_at) KEY (address) VALUES (?, ?, ?, ?, ?)")),
+    DELETE_ADDRESS_BAN("address-ban.delete", Kind.UPDATE,
+            "DELETE FROM velocity_punishment_address WHERE address = ?"),
+    DELETE_EXPIRED_ADDRESS_BANS("address-ban.delete-expired", Kind.UPDATE,
+            "DELETE FROM velocity_punishment_address WHERE expiration <= ?"),
+    SELECT_ADDRESS_BANS("address-ban.select", Kind.QUERY,
+            "SELECT address, expiration, reason, punishment_id FROM velocity_punishment_address WHERE expiration > ?"),
+
+    /**
+     * Inserts a single record. Further rows are appended as {@code , (?, ?, ?, ?)} by
+     * {@link de.jvstvshd.velocitypunishment.impl.LoginRecordWriter}.
+     */
+    INSERT_LOGINS("login.insert", Kind.UPDATE,
+            "INSERT INTO velocity_punishment_login (uuid, address, login_at, event) VALUES (?, ?, ?, ?)"),
+    /**
+     * The distinct accounts and addresses of all logins since a point in time together with the last login, loaded
+     * into the index of linked accounts.
+     */
+    SELECT_LOGIN_ADDRESSES("login.select-addresses", Kind.QUERY,
+            "SELECT uuid, address, MAX(login_at) FROM velocity_punishment_login WHERE login_at > ? GROUP BY uuid, address"),
+    DELETE_LOGINS_BEFORE("login.delete-before", Kind.UPDATE,
+            "DELETE FROM velocity_punishment_login WHERE login_at < ?");
+
+    private final String id;
+    private final Kind kind;
+    private final String sql;
+    private final Map<Dialect, String> variants;
+
+    SqlStatement(String id, Kind kind, String sql) {
+        this(id, kind, sql, Map.of());
+    }
+
+    SqlStatement(String id, Kind kind, String sql, Map<Dialect, String> variants) {
+        this.id = id;
+        this.kind = kind;
+        this.sql = sql;
+        this.variants = variants;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @param dialect the dialect in use
+     * @return the SQL of this statement for {@code dialect}
+     */
+    public String sql(Dialect dialect) {
+        return variants.getOrDefault(dialect, sql);
+    }
+
+    public enum Kind {
+        /**
+         * Creates or migrates the schema. Executed once at startup, before the other statements are validated.
+         */
+        SCHEMA,
+        UPDATE,
+        QUERY
+    }
+}
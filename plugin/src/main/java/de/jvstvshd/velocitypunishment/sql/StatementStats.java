@@ -0,0 +1,114 @@
+/*
+ * This file is part of Velocity Punishment, which is licensed under the MIT license.
+ *
+ * Copyright (c) 2022 JvstvsHD
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package de.jvstvshd.velocitypunishment.sql;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Execution statistics of one statement. Besides the totals since startup, the durations of the last
+ * {@value #WINDOW} executions are kept, so percentiles reflect the current behaviour rather than the whole uptime.
+ */
+public class StatementStats {
+
+    public static final int WINDOW = 1024;
+
+    private final String statementId;
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder slow = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLongArray window = new AtomicLongArray(WINDOW);
+    private final AtomicLong position = new AtomicLong();
+
+    public StatementStats(String statementId) {
+        this.statementId = statementId;
+    }
+
+    void record(long nanos, boolean failed, boolean wasSlow) {
+        executions.increment();
+        totalNanos.add(nanos);
+        if (failed) {
+            errors.increment();
+        }
+        if (wasSlow) {
+            slow.increment();
+        }
+        window.set((int) (position.getAndIncrement() % WINDOW), nanos);
+    }
+
+    public String getStatementId() {
+        return statementId;
+    }
+
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getSlowExecutions() {
+        return slow.sum();
+    }
+
+    public long getTotalTime(TimeUnit unit) {
+        return unit.convert(totalNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return the durations of the most recent executions in nanoseconds, sorted ascending
+     */
+    public long[] recentDurations() {
+        int size = (int) Math.min(position.get(), WINDOW);
+        long[] durations = new long[size];
+        for (int i = 0; i < size; i++) {
+            durations[i] = window.get(i);
+        }
+        Arrays.sort(durations);
+        return durations;
+    }
+
+    /**
+     * @param percentile the percentile, between 0 and 1
+     * @param unit       the unit of the result
+     * @return the percentile of the most recent executions or 0, if the statement was not executed yet
+     */
+    public long recentPercentile(double percentile, TimeUnit unit) {
+        return percentile(recentDurations(), percentile, unit);
+    }
+
+    public static long percentile(long[] sorted, double percentile, TimeUnit unit) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = Math.max(0, (int) Math.ceil(percentile * sorted.length) - 1);
+        return unit.convert(sorted[index], TimeUnit.NANOSECONDS);
+    }
+}
@@ -1,3 +1,4 @@
 rootProject.name = "VelocityBan"
 include("api")
 include("plugin")
+include("benchmarks")